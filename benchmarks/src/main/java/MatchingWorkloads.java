@@ -0,0 +1,151 @@
+import benchmarks.Workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * The benchmark workloads, kept in the default package so they can use the solver classes directly.
+ * Graph sizes are derived from the requested number of edges so that every generator yields
+ * graphs of comparable size; all inputs are generated from a fixed seed.
+ */
+public final class MatchingWorkloads {
+    private static final long SEED = 42;
+
+    private MatchingWorkloads() {
+    }
+
+    // Generates about the given number of edges with the named generator
+    static int[] generate(String generator, int edges) {
+        switch (generator) {
+            case "ERDOS_RENYI":
+                return GraphGenerators.erdosRenyi(Math.max(2, edges / 2), edges, SEED);
+            case "RANDOM_REGULAR":
+                return GraphGenerators.randomRegular(Math.max(6, edges / 2), 4, SEED);
+            case "GRID": {
+                int side = Math.max(2, (int) Math.sqrt(edges / 2.0));
+                return GraphGenerators.grid(side, side);
+            }
+            case "BIPARTITE": {
+                int half = Math.max(2, edges / 4);
+                return GraphGenerators.bipartite(half, half, edges, SEED);
+            }
+            case "NESTED_ODD_CYCLES":
+                return GraphGenerators.nestedOddCycles(Math.max(1, edges / 7), 5, SEED);
+            default:
+                throw new IllegalArgumentException("Unknown generator: " + generator);
+        }
+    }
+
+    static Graph generateGraph(String generator, int edges) {
+        int[] list = generate(generator, edges);
+        return GraphGenerators.toGraph(GraphGenerators.vertexCount(list), list);
+    }
+
+    public static final class Solve implements Workload {
+        private Graph graph;
+        private MatchingSolver solver;
+
+        @Override
+        public void setUp(String generator, int edges, String variant) {
+            graph = generateGraph(generator, edges);
+            solver = new MatchingSolver("AUTO".equals(variant) ? null : MatchingEngine.valueOf(variant));
+        }
+
+        @Override
+        public Object run() {
+            return solver.solve(graph).size();
+        }
+    }
+
+    // Variant "" walks getNeighbors, "CURSOR" a reused NeighborCursor, "FOR_EACH" forEachNeighbor
+    public static final class Neighbors implements Workload {
+        private Graph graph;
+        private int n;
+        private String variant;
+        private long sum;
+
+        @Override
+        public void setUp(String generator, int edges, String variant) {
+            graph = generateGraph(generator, edges);
+            n = graph.getNumVertices();
+            this.variant = variant;
+        }
+
+        @Override
+        public Object run() {
+            sum = 0;
+            if ("CURSOR".equals(variant)) {
+                Graph.NeighborCursor neighbors = graph.neighborCursor();
+                for (int v = 0; v < n; v++) {
+                    for (neighbors.reset(v); neighbors.hasNext(); ) {
+                        sum += neighbors.next();
+                    }
+                }
+            } else if ("FOR_EACH".equals(variant)) {
+                for (int v = 0; v < n; v++) {
+                    graph.forEachNeighbor(v, this::add);
+                }
+            } else {
+                for (int v = 0; v < n; v++) {
+                    for (int u : graph.getNeighbors(v)) {
+                        sum += u;
+                    }
+                }
+            }
+            return sum;
+        }
+
+        private void add(int u) {
+            sum += u;
+        }
+    }
+
+    public static final class HasEdge implements Workload {
+        private Graph graph;
+        private int[] queries;
+
+        @Override
+        public void setUp(String generator, int edges, String variant) {
+            int[] list = generate(generator, edges);
+            int n = GraphGenerators.vertexCount(list);
+            graph = GraphGenerators.toGraph(n, list);
+            SplittableRandom random = new SplittableRandom(SEED);
+            queries = new int[list.length];
+            for (int i = 0; i + 1 < list.length; i += 2) {
+                if ((i & 2) == 0) {
+                    queries[i] = list[i];
+                    queries[i + 1] = list[i + 1];
+                } else {
+                    queries[i] = random.nextInt(n);
+                    queries[i + 1] = random.nextInt(n);
+                }
+            }
+        }
+
+        @Override
+        public Object run() {
+            int found = 0;
+            for (int i = 0; i + 1 < queries.length; i += 2) {
+                if (graph.hasEdge(queries[i], queries[i + 1])) {
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+
+    public static final class Construction implements Workload {
+        private int[] list;
+        private int n;
+
+        @Override
+        public void setUp(String generator, int edges, String variant) {
+            list = generate(generator, edges);
+            n = GraphGenerators.vertexCount(list);
+        }
+
+        @Override
+        public Object run() {
+            return GraphGenerators.toGraph(n, list);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the Graph operations the solver and the GUI depend on:
+ * neighbor lookup through each of its APIs, edge lookup and construction from an edge list.
+ * Run with -prof gc to also get the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GraphBenchmark {
+    @Param({"ERDOS_RENYI", "GRID"})
+    public String generator;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int edges;
+
+    private Workload neighbors;
+    private Workload cursorNeighbors;
+    private Workload forEachNeighbor;
+    private Workload hasEdge;
+    private Workload construction;
+
+    @Setup
+    public void setUp() {
+        neighbors = Workload.load("MatchingWorkloads$Neighbors");
+        neighbors.setUp(generator, edges, "");
+        cursorNeighbors = Workload.load("MatchingWorkloads$Neighbors");
+        cursorNeighbors.setUp(generator, edges, "CURSOR");
+        forEachNeighbor = Workload.load("MatchingWorkloads$Neighbors");
+        forEachNeighbor.setUp(generator, edges, "FOR_EACH");
+        hasEdge = Workload.load("MatchingWorkloads$HasEdge");
+        hasEdge.setUp(generator, edges, "");
+        construction = Workload.load("MatchingWorkloads$Construction");
+        construction.setUp(generator, edges, "");
+    }
+
+    // Visits the neighbors of every vertex once
+    @Benchmark
+    public Object getNeighbors() {
+        return neighbors.run();
+    }
+
+    // Visits the neighbors of every vertex once through a reused NeighborCursor
+    @Benchmark
+    public Object neighborCursor() {
+        return cursorNeighbors.run();
+    }
+
+    // Visits the neighbors of every vertex once through forEachNeighbor
+    @Benchmark
+    public Object forEachNeighbor() {
+        return forEachNeighbor.run();
+    }
+
+    // Looks up as many vertex pairs as there are edges, half of them adjacent
+    @Benchmark
+    public Object hasEdge() {
+        return hasEdge.run();
+    }
+
+    // Builds a Graph from the generated edge list
+    @Benchmark
+    public Object construction() {
+        return construction.run();
+    }
+}
@@ -0,0 +1,39 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a full maximum matching solve, per generator, size and engine.
+ * Run with -prof gc to also get the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SolveBenchmark {
+    @Param({"ERDOS_RENYI", "RANDOM_REGULAR", "GRID", "BIPARTITE", "NESTED_ODD_CYCLES"})
+    public String generator;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int edges;
+
+    @Param({"AUTO", "MICALI_VAZIRANI", "COMPACT_BLOSSOM", "BLOSSOM"})
+    public String engine;
+
+    private Workload solve;
+
+    @Setup
+    public void setUp() {
+        solve = Workload.load("MatchingWorkloads$Solve");
+        solve.setUp(generator, edges, engine);
+    }
+
+    @Benchmark
+    public Object solve() {
+        return solve.run();
+    }
+}
@@ -0,0 +1,32 @@
+package benchmarks;
+
+/**
+ * A unit of work measured by a benchmark.
+ * JMH refuses benchmark classes in the default package, and a named package cannot import the
+ * default-package classes of the solver, so the workloads are implemented next to the solver in
+ * MatchingWorkloads and looked up by name once, during setup.
+ */
+public interface Workload {
+    /**
+     * Prepares the input of the workload.
+     * @param generator the name of the graph generator
+     * @param edges the approximate number of edges to generate
+     * @param variant a workload specific option, such as the matching engine
+     */
+    void setUp(String generator, int edges, String variant);
+
+    // Runs the measured operation once; the result is returned so JMH does not eliminate it
+    Object run();
+
+    /**
+     * Instantiates a workload implemented in the default package.
+     * @param className the binary name of the class, for example "MatchingWorkloads$Solve"
+     */
+    static Workload load(String className) {
+        try {
+            return (Workload) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load workload " + className, e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies random edit sequences to a graph and checks after every edit that the followed matching is maximum.
+ */
+class DynamicMatchingTest {
+    @Test
+    void staysMaximumUnderRandomEdits() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 60; trial++) {
+            Graph graph = TestGraphs.random(random, 2 + random.nextInt(10), 0.3, false, 0);
+            DynamicMatching matching = new DynamicMatching(graph);
+            int nextId = 1000;
+            for (int edit = 0; edit < 40; edit++) {
+                List<Integer> ids = new ArrayList<>(graph.getVertices());
+                int kind = random.nextInt(10);
+                if (kind < 4 && ids.size() >= 2) {
+                    int u = ids.get(random.nextInt(ids.size())), v = ids.get(random.nextInt(ids.size()));
+                    if (u != v && !graph.hasEdge(u, v)) {
+                        graph.addEdge(u, v);
+                    }
+                } else if (kind < 7 && !ids.isEmpty()) {
+                    int u = ids.get(random.nextInt(ids.size()));
+                    List<Integer> neighbors = graph.getNeighbors(u);
+                    if (!neighbors.isEmpty()) {
+                        graph.removeEdge(u, neighbors.get(random.nextInt(neighbors.size())));
+                    }
+                } else if (kind < 8 && ids.size() < 14) {
+                    graph.addVertex(new Vertex(nextId++, 0, 0));
+                } else if (!ids.isEmpty()) {
+                    graph.removeVertex(ids.get(random.nextInt(ids.size())));
+                }
+                Map<Integer, Integer> current = matching.getMatching();
+                TestGraphs.assertMatching(graph, current, TestGraphs.maximumMatchingSize(graph));
+                assertEquals(current.size() / 2, matching.size());
+            }
+            matching.detach();
+        }
+    }
+
+    @Test
+    void stopsFollowingAfterDetach() {
+        Graph graph = TestGraphs.random(new Random(2), 4, 0, false, 0);
+        DynamicMatching matching = new DynamicMatching(graph);
+        matching.detach();
+        graph.addEdge(0, 3);
+        assertEquals(0, matching.size());
+        assertNull(matching.getMate(0));
+    }
+}
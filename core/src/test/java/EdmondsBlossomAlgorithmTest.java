@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the blossom search only trusts the consistent edges of an initial matching.
+ */
+class EdmondsBlossomAlgorithmTest {
+    @Test
+    void ignoresPairsThatAreNotStoredInBothDirections() {
+        Graph path = path(4);
+        EdmondsBlossomAlgorithm eba = new EdmondsBlossomAlgorithm(path);
+        eba.setInitialMatching(Map.of(0, 1, 1, 2, 2, 1));
+        TestGraphs.assertMatching(path, eba.findMaximumMatching(), 2);
+        assertEquals(1, eba.getWarmStartSize());
+    }
+
+    @Test
+    void ignoresPairsThatAreNotEdges() {
+        Graph path = path(4);
+        EdmondsBlossomAlgorithm eba = new EdmondsBlossomAlgorithm(path);
+        eba.setInitialMatching(Map.of(0, 3, 3, 0, 7, 8, 8, 7));
+        TestGraphs.assertMatching(path, eba.findMaximumMatching(), 2);
+        assertEquals(0, eba.getWarmStartSize());
+    }
+
+    @Test
+    void randomInitialMapsNeverBreakTheSearch() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 500; trial++) {
+            Graph graph = TestGraphs.random(random, 2 + random.nextInt(12), random.nextDouble(), false, 0);
+            List<Integer> ids = new ArrayList<>(graph.getVertices());
+            Map<Integer, Integer> garbage = new HashMap<>();
+            for (int i = random.nextInt(2 * ids.size()); i > 0; i--) {
+                garbage.put(ids.get(random.nextInt(ids.size())), ids.get(random.nextInt(ids.size())));
+            }
+            EdmondsBlossomAlgorithm eba = new EdmondsBlossomAlgorithm(graph);
+            eba.setInitialMatching(garbage);
+            TestGraphs.assertMatching(graph, eba.findMaximumMatching(), TestGraphs.maximumMatchingSize(graph));
+        }
+    }
+
+    private static Graph path(int n) {
+        Graph graph = new Graph();
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(new Vertex(v, 0, 0));
+            if (v > 0) {
+                graph.addEdge(v - 1, v);
+            }
+        }
+        return graph;
+    }
+}
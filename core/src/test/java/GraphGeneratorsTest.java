@@ -0,0 +1,35 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the random generators return the requested number of distinct edges, up to the complete graph.
+ */
+class GraphGeneratorsTest {
+    @Test
+    void denseGraphsHaveExactlyTheRequestedEdges() {
+        for (int m = 0; m <= 45; m++) {
+            assertDistinctEdges(GraphGenerators.erdosRenyi(10, m, m), m);
+            assertDistinctEdges(GraphGenerators.bipartite(5, 9, m, m), m);
+        }
+    }
+
+    @Test
+    void moreEdgesThanPairsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> GraphGenerators.erdosRenyi(10, 46, 0));
+        assertThrows(IllegalArgumentException.class, () -> GraphGenerators.bipartite(5, 9, 46, 0));
+        assertThrows(IllegalArgumentException.class, () -> GraphGenerators.erdosRenyi(10, -1, 0));
+    }
+
+    private static void assertDistinctEdges(int[] edges, int m) {
+        assertEquals(2 * m, edges.length);
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i < edges.length; i += 2) {
+            int u = Math.min(edges[i], edges[i + 1]), v = Math.max(edges[i], edges[i + 1]);
+            assertTrue(u < v, "self-loop at " + u);
+            assertTrue(keys.add((long) u << 32 | v), "repeated edge " + u + "-" + v);
+        }
+    }
+}
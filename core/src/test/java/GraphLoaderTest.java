@@ -0,0 +1,239 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes random graphs in every supported format and checks that the loader reads back the same edges,
+ * and that the heap loader, the off-heap loader, the binary snapshot file and the edge stream all agree.
+ */
+class GraphLoaderTest {
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(GraphLoader.Format.class)
+    void loadedEdgesMatchTheWrittenOnes(GraphLoader.Format format) throws IOException {
+        Random random = new Random(format.ordinal());
+        for (int trial = 0; trial < 50; trial++) {
+            int n = 1 + random.nextInt(30);
+            int[] edges = randomEdges(random, n, random.nextInt(3 * n));
+            Set<Long> written = new HashSet<>();
+            for (int i = 0; i < edges.length; i += 2) {
+                written.add(key(edges[i] + 1, edges[i + 1] + 1));
+                written.add(key(edges[i + 1] + 1, edges[i] + 1));
+            }
+            assertEquals(written, edgeKeys(GraphLoader.load(write(format, n, edges, trial), format)));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(GraphLoader.Format.class)
+    void heapAndOffHeapLoadersAgree(GraphLoader.Format format) throws IOException {
+        Random random = new Random(format.ordinal());
+        for (int trial = 0; trial < 50; trial++) {
+            int n = 1 + random.nextInt(30);
+            int[] edges = randomEdges(random, n, random.nextInt(3 * n));
+            Path file = write(format, n, edges, trial);
+            CompactGraph heap = GraphLoader.load(file, format);
+            assertSameGraph(heap, GraphLoader.loadOffHeap(file, format));
+            assertSameGraph(heap, heap.toOffHeap());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(GraphLoader.Format.class)
+    void edgeStreamReportsTheLoadedIds(GraphLoader.Format format) throws IOException {
+        Random random = new Random(10 + format.ordinal());
+        int n = 20;
+        int[] edges = randomEdges(random, n, 40);
+        Path file = write(format, n, edges, 0);
+        Set<Long> streamed = new HashSet<>();
+        GraphLoader.forEachEdge(file, format, (u, v) -> {
+            streamed.add(key(u, v));
+            streamed.add(key(v, u));
+        });
+        assertEquals(edgeKeys(GraphLoader.load(file, format)), streamed);
+    }
+
+    @Test
+    void edgeListsKeepSparseAndNegativeIds() throws IOException {
+        Path file = directory.resolve("sparse.txt");
+        Files.writeString(file, "# comment\n-5 7\n7 1000000000\n-5 1000000000 2.5\n");
+        CompactGraph heap = GraphLoader.load(file);
+        assertEquals(3, heap.getNumVertices());
+        assertEquals(3, heap.getNumEdges());
+        assertEquals(-5, heap.getId(0));
+        assertEquals(Set.of(key(-5, 7), key(7, -5), key(7, 1000000000), key(1000000000, 7), key(-5, 1000000000),
+                key(1000000000, -5)), edgeKeys(heap));
+        assertSameGraph(heap, GraphLoader.loadOffHeap(file));
+    }
+
+    @Test
+    void verticesOnlyOnSelfLoopsAreKeptOffHeap() throws IOException {
+        Path file = directory.resolve("loops.txt");
+        Files.writeString(file, "1 2\n10 10\n2 2\n");
+        CompactGraph heap = GraphLoader.load(file);
+        assertEquals(3, heap.getNumVertices());
+        assertEquals(1, heap.getNumEdges());
+        assertSameGraph(heap, GraphLoader.loadOffHeap(file));
+
+        Path dimacs = directory.resolve("loops.col");
+        Files.writeString(dimacs, "p edge 3 2\ne 1 2\ne 3 3\n");
+        assertSameGraph(GraphLoader.load(dimacs), GraphLoader.loadOffHeap(dimacs));
+    }
+
+    @Test
+    void snapshotFilesRoundTrip() throws IOException {
+        Random random = new Random(20);
+        int[] edges = randomEdges(random, 50, 120);
+        CompactGraph graph = GraphLoader.load(write(GraphLoader.Format.EDGE_LIST, 50, edges, 0));
+        Path snapshot = directory.resolve("graph.blsm");
+        CompactGraphFile.write(graph, snapshot);
+        assertSameGraph(graph, CompactGraphFile.map(snapshot));
+    }
+
+    @Test
+    void corruptSnapshotHeadersAreRejected() throws IOException {
+        CompactGraph graph = GraphLoader.load(write(GraphLoader.Format.EDGE_LIST, 10, randomEdges(new Random(21), 10, 20), 0));
+        Path snapshot = directory.resolve("graph.blsm");
+        CompactGraphFile.write(graph, snapshot);
+        byte[] original = Files.readAllBytes(snapshot);
+        // Positions inside the header, negative, past the end, and large enough to overflow the bounds checks
+        long[][] corruptions = {{24, 0}, {32, -64}, {40, original.length + 64L}, {24, Long.MAX_VALUE - 8}, {40, Long.MAX_VALUE}};
+        for (long[] corruption : corruptions) {
+            byte[] bytes = original.clone();
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong((int) corruption[0], corruption[1]);
+            Files.write(snapshot, bytes);
+            IOException e = assertThrows(IOException.class, () -> CompactGraphFile.map(snapshot));
+            assertTrue(e.getMessage().contains(snapshot.toString()), e.getMessage());
+        }
+    }
+
+    @Test
+    void corruptSnapshotArraysAreRejected() throws IOException {
+        CompactGraph graph = GraphLoader.load(write(GraphLoader.Format.EDGE_LIST, 10, randomEdges(new Random(22), 10, 20), 0));
+        Path snapshot = directory.resolve("graph.blsm");
+        CompactGraphFile.write(graph, snapshot);
+        byte[] original = Files.readAllBytes(snapshot);
+        ByteBuffer header = ByteBuffer.wrap(original).order(ByteOrder.LITTLE_ENDIAN);
+        int offsets = (int) header.getLong(32), targets = (int) header.getLong(40);
+        // An offset above the next one, a target past the last vertex, and a negative target
+        int[][] corruptions = {{offsets + 4 * 5, 1000}, {targets, 10}, {targets + 4 * 7, -1}};
+        for (int[] corruption : corruptions) {
+            byte[] bytes = original.clone();
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(corruption[0], corruption[1]);
+            Files.write(snapshot, bytes);
+            IOException e = assertThrows(IOException.class, () -> CompactGraphFile.map(snapshot));
+            assertTrue(e.getMessage().contains(snapshot.toString()), e.getMessage());
+            assertNotNull(CompactGraphFile.map(snapshot, false));
+        }
+    }
+
+    // Random edges over indices 0 .. n - 1, without self-loops but possibly repeated
+    private static int[] randomEdges(Random random, int n, int m) {
+        if (n == 1) {
+            return new int[0];
+        }
+        int[] edges = new int[2 * m];
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n), v = random.nextInt(n);
+            if (u == v) {
+                v = (v + 1) % n;
+            }
+            edges[2 * i] = u;
+            edges[2 * i + 1] = v;
+        }
+        return edges;
+    }
+
+    // Writes the edges in the given format with 1-based ids
+    private Path write(GraphLoader.Format format, int n, int[] edges, int trial) throws IOException {
+        int m = edges.length / 2;
+        StringBuilder text = new StringBuilder();
+        switch (format) {
+            case DIMACS:
+                text.append("c random graph\np edge ").append(n).append(' ').append(m).append('\n');
+                for (int i = 0; i < m; i++) {
+                    text.append("e ").append(edges[2 * i] + 1).append(' ').append(edges[2 * i + 1] + 1).append('\n');
+                }
+                break;
+            case METIS: {
+                List<Set<Integer>> adjacency = new ArrayList<>();
+                for (int v = 0; v < n; v++) {
+                    adjacency.add(new TreeSet<>());
+                }
+                for (int i = 0; i < m; i++) {
+                    adjacency.get(edges[2 * i]).add(edges[2 * i + 1]);
+                    adjacency.get(edges[2 * i + 1]).add(edges[2 * i]);
+                }
+                int distinct = adjacency.stream().mapToInt(Set::size).sum() / 2;
+                text.append("% random graph\n").append(n).append(' ').append(distinct).append('\n');
+                for (Set<Integer> neighbors : adjacency) {
+                    StringJoiner line = new StringJoiner(" ");
+                    neighbors.forEach(u -> line.add(String.valueOf(u + 1)));
+                    text.append(line).append('\n');
+                }
+                break;
+            }
+            case MATRIX_MARKET:
+                text.append("%%MatrixMarket matrix coordinate pattern symmetric\n").append(n).append(' ').append(n)
+                        .append(' ').append(m).append('\n');
+                for (int i = 0; i < m; i++) {
+                    text.append(edges[2 * i] + 1).append(' ').append(edges[2 * i + 1] + 1).append('\n');
+                }
+                break;
+            default:
+                text.append("# random graph\n");
+                for (int i = 0; i < m; i++) {
+                    text.append(edges[2 * i] + 1).append(' ').append(edges[2 * i + 1] + 1).append('\n');
+                }
+        }
+        Path file = directory.resolve("graph" + trial + "." + format.name().toLowerCase());
+        Files.writeString(file, text);
+        return file;
+    }
+
+    private static long key(int u, int v) {
+        return ((long) u << 32) | (v & 0xFFFFFFFFL);
+    }
+
+    // Every edge of the graph as a pair of ids, in both directions
+    private static Set<Long> edgeKeys(CompactGraph graph) {
+        Set<Long> keys = new HashSet<>();
+        for (int v = 0; v < graph.getNumVertices(); v++) {
+            for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+                keys.add(key(graph.getId(v), graph.getId(graph.target(e))));
+            }
+        }
+        return keys;
+    }
+
+    // Same ids in the same order and the same neighbor set for every vertex
+    static void assertSameGraph(CompactGraph expected, CompactGraph actual) {
+        assertEquals(expected.getNumVertices(), actual.getNumVertices(), "vertices");
+        assertEquals(expected.getNumEdges(), actual.getNumEdges(), "edges");
+        for (int v = 0; v < expected.getNumVertices(); v++) {
+            assertEquals(expected.getId(v), actual.getId(v), "id of index " + v);
+            assertArrayEquals(neighbors(expected, v), neighbors(actual, v), "neighbors of index " + v);
+        }
+    }
+
+    private static int[] neighbors(CompactGraph graph, int v) {
+        int[] neighbors = new int[graph.degree(v)];
+        for (int e = graph.firstEdge(v); e < graph.endEdge(v); e++) {
+            neighbors[e - graph.firstEdge(v)] = graph.target(e);
+        }
+        Arrays.sort(neighbors);
+        return neighbors;
+    }
+}
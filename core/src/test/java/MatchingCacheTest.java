@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that cached matchings are only handed out for graphs they are a matching of.
+ */
+class MatchingCacheTest {
+    @Test
+    void repeatedGraphsHitTheCache() {
+        Random random = new Random(1);
+        MatchingCache cache = new MatchingCache(new MatchingSolver());
+        for (int trial = 0; trial < 50; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(12), random.nextDouble(), false, 5);
+            int optimum = TestGraphs.maximumMatchingSize(graph);
+            TestGraphs.assertMatching(graph, cache.solve(graph).getMatching(), optimum);
+            long hits = cache.getHits();
+            TestGraphs.assertMatching(graph, cache.solve(graph.freeze()).getMatching(), optimum);
+            assertEquals(hits + 1, cache.getHits());
+        }
+    }
+
+    @Test
+    void selfLoopsDoNotChangeTheFingerprint() {
+        Graph graph = TestGraphs.random(new Random(3), 6, 0.5, false, 5);
+        GraphFingerprint withoutLoop = GraphFingerprint.of(graph);
+        graph.addEdge(8, 8);
+        assertEquals(withoutLoop, GraphFingerprint.of(graph));
+        assertEquals(GraphFingerprint.of(graph), GraphFingerprint.of(graph.freeze()));
+    }
+
+    @Test
+    void fingerprintCollisionsAreMisses() {
+        Graph cached = TestGraphs.random(new Random(2), 4, 0, false, 0);
+        cached.addEdge(0, 3);
+        Graph other = TestGraphs.random(new Random(2), 4, 0, false, 0);
+        other.addEdge(0, 6);
+        MatchingCache cache = new MatchingCache(new MatchingSolver());
+        cache.solve(cached);
+        // Looking up the other graph under the key of the cached one stands in for a collision
+        GraphFingerprint key = GraphFingerprint.of(cached);
+        assertNull(cache.lookup(key, System.nanoTime(), other::hasEdge));
+        assertNull(cache.lookup(key, System.nanoTime(), other.freeze()::hasEdge));
+        assertNotNull(cache.lookup(key, System.nanoTime(), cached.freeze()::hasEdge));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+}
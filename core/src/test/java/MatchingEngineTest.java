@@ -0,0 +1,169 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cross-checks every engine and solver setting against a brute-force maximum matching on small random graphs.
+ */
+class MatchingEngineTest {
+    private static final int TRIALS = 400;
+
+    @ParameterizedTest
+    @EnumSource(value = MatchingEngine.class, names = {"BLOSSOM", "COMPACT_BLOSSOM", "MICALI_VAZIRANI"})
+    void generalEnginesFindMaximumMatchings(MatchingEngine engine) {
+        Random random = new Random(engine.ordinal());
+        for (int trial = 0; trial < TRIALS; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), false, 5);
+            TestGraphs.assertMatching(graph, engine.findMaximumMatching(graph), TestGraphs.maximumMatchingSize(graph));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = MatchingEngine.class, names = {"BLOSSOM", "COMPACT_BLOSSOM", "MICALI_VAZIRANI"})
+    void generalEnginesSolveSnapshotsComponentByComponent(MatchingEngine engine) {
+        Random random = new Random(30 + engine.ordinal());
+        for (int trial = 0; trial < TRIALS; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble() / 2, false, 5);
+            CompactGraph compact = graph.freeze();
+            TestGraphs.assertMatching(graph, compact.toMatching(new ComponentMatching(compact, engine).solve()),
+                    TestGraphs.maximumMatchingSize(graph));
+        }
+    }
+
+    @Test
+    void hopcroftKarpFindsMaximumMatchingsOnBipartiteGraphs() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), true, 5);
+            TestGraphs.assertMatching(graph, MatchingEngine.HOPCROFT_KARP.findMaximumMatching(graph),
+                    TestGraphs.maximumMatchingSize(graph));
+        }
+    }
+
+    @Test
+    void hopcroftKarpPhasesStayWithinTheShortestPathBound() {
+        Random random = new Random(4);
+        for (int trial = 0; trial < 40; trial++) {
+            Graph graph = TestGraphs.random(random, 50 + random.nextInt(250), 3.0 / (10 + random.nextInt(40)), true, 5);
+            CompactGraph compact = graph.freeze();
+            HopcroftKarpMatching matching = new HopcroftKarpMatching(compact);
+            int size = compact.toMatching(matching.solve()).size() / 2;
+            assertEquals(compact.toMatching(MatchingEngine.COMPACT_BLOSSOM.solve(compact)).size() / 2, size);
+            // Phases that only augment along shortest paths number at most 2 sqrt(s) + 1 for a maximum matching of size s
+            assertTrue(matching.getStats().getPhases() <= 2 * Math.sqrt(size) + 2,
+                    matching.getStats().getPhases() + " phases for a matching of size " + size);
+        }
+    }
+
+    @Test
+    void micaliVaziraniPhasesStayWithinTheShortestPathBound() {
+        Random random = new Random(5);
+        for (int trial = 0; trial < 40; trial++) {
+            int[] edges = trial % 2 == 0
+                    ? GraphGenerators.erdosRenyi(50 + random.nextInt(250), 100 + random.nextInt(400), trial)
+                    : GraphGenerators.nestedOddCycles(2 + random.nextInt(20), 3 + 2 * random.nextInt(4), trial);
+            CompactGraph compact = GraphGenerators.toGraph(GraphGenerators.vertexCount(edges), edges).freeze();
+            MicaliVaziraniMatching matching = new MicaliVaziraniMatching(compact);
+            int size = compact.toMatching(matching.solve()).size() / 2;
+            assertEquals(compact.toMatching(MatchingEngine.COMPACT_BLOSSOM.solve(compact)).size() / 2, size);
+            assertTrue(matching.getStats().getPhases() <= 2 * Math.sqrt(size) + 2,
+                    matching.getStats().getPhases() + " phases for a matching of size " + size);
+        }
+    }
+
+    @Test
+    void hopcroftKarpAugmentsAlongAShortestPathFirst() {
+        // 0 is free and its first edge starts the longer path 0-1-2-3, but the edge 0-4 alone is shorter
+        CompactGraph graph = CompactGraph.fromEdges(new int[]{0, 1, 2, 3, 4}, new int[]{0, 1, 0, 4, 2, 1, 2, 3}, 4);
+        int[] mate = new HopcroftKarpMatching(graph).solve(new int[]{-1, 2, 1, -1, -1});
+        assertEquals(4, mate[0]);
+        assertEquals(1, mate[2]);
+    }
+
+    @Test
+    void hopcroftKarpRejectsOddCycles() {
+        Graph triangle = TestGraphs.random(new Random(0), 3, 1, false, 0);
+        assertThrows(IllegalArgumentException.class, () -> new HopcroftKarpMatching(triangle.freeze()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(WarmStart.class)
+    void solverFindsMaximumMatchingsWithEveryWarmStart(WarmStart warmStart) {
+        Random random = new Random(10 + warmStart.ordinal());
+        MatchingSolver solver = new MatchingSolver();
+        solver.setWarmStart(warmStart);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), random.nextBoolean(), 5);
+            MatchingResult result = solver.solve(graph);
+            TestGraphs.assertMatching(graph, result.getMatching(), TestGraphs.maximumMatchingSize(graph));
+            assertTrue(result.isMaximum());
+        }
+    }
+
+    @Test
+    void automaticSelectionPicksEnginesWithProvenBounds() {
+        Graph triangle = TestGraphs.random(new Random(0), 3, 1, false, 0);
+        Graph square = TestGraphs.random(new Random(0), 4, 1, true, 0);
+        assertEquals(MatchingEngine.MICALI_VAZIRANI, new MatchingSolver().solve(triangle).getEngine());
+        assertEquals(MatchingEngine.HOPCROFT_KARP, new MatchingSolver().solve(square).getEngine());
+        MatchingSolver parallel = new MatchingSolver();
+        parallel.setParallel(true);
+        assertEquals(MatchingEngine.MICALI_VAZIRANI, parallel.solve(triangle).getEngine());
+    }
+
+    @Test
+    void parallelComponentsMatchTheSequentialSize() {
+        Random random = new Random(20);
+        MatchingSolver solver = new MatchingSolver();
+        solver.setParallel(true);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            // Sparse graphs have many components
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(16), 0.15, random.nextBoolean(), 5);
+            TestGraphs.assertMatching(graph, solver.solve(graph).getMatching(), TestGraphs.maximumMatchingSize(graph));
+        }
+    }
+
+    @Test
+    void budgetedSolvesReturnValidMatchingsAndSoundBounds() {
+        Random random = new Random(30);
+        MatchingSolver solver = new MatchingSolver();
+        solver.setBudget(new MatchingBudget(0, 1 + random.nextInt(20), 0));
+        for (int trial = 0; trial < TRIALS; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), random.nextBoolean(), 5);
+            MatchingResult result = solver.solve(graph);
+            int optimum = TestGraphs.maximumMatchingSize(graph);
+            TestGraphs.assertValidMatching(graph, result.getMatching());
+            assertTrue(result.size() <= optimum);
+            assertTrue(result.getUpperBound() >= optimum, "bound " + result.getUpperBound() + " below optimum " + optimum);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = MatchingEngine.class, names = {"BLOSSOM", "COMPACT_BLOSSOM", "MICALI_VAZIRANI"})
+    void budgetedSolvesKeepTheForcedEngine(MatchingEngine engine) {
+        Random random = new Random(40 + engine.ordinal());
+        MatchingSolver solver = new MatchingSolver(engine);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            solver.setBudget(new MatchingBudget(0, 1 + random.nextInt(40), random.nextBoolean() ? 0.2 : 0));
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), false, 5);
+            MatchingResult result = solver.solve(graph);
+            int optimum = TestGraphs.maximumMatchingSize(graph);
+            assertEquals(engine, result.getEngine());
+            TestGraphs.assertValidMatching(graph, result.getMatching());
+            assertTrue(result.size() <= optimum);
+            assertTrue(result.getUpperBound() >= optimum, "bound " + result.getUpperBound() + " below optimum " + optimum);
+        }
+    }
+
+    @Test
+    void budgetedHopcroftKarpRejectsOddCycles() {
+        MatchingSolver solver = new MatchingSolver(MatchingEngine.HOPCROFT_KARP);
+        solver.setBudget(new MatchingBudget(0, 100, 0));
+        Graph triangle = TestGraphs.random(new Random(0), 3, 1, false, 0);
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(triangle));
+    }
+}
@@ -0,0 +1,51 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that lifting a maximum matching of the kernel gives a maximum matching of the original graph.
+ */
+class MatchingKernelTest {
+    @Test
+    void liftedKernelMatchingIsMaximum() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 600; trial++) {
+            // Sparse graphs have many vertices of degree one and two for the reductions to remove
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(16), 0.05 + 0.3 * random.nextDouble(), false, 7);
+            MatchingKernel kernel = new MatchingKernel(graph);
+            assertTrue(kernel.getKernelVertices() <= kernel.getOriginalVertices());
+            CompactGraph reduced = kernel.getKernel();
+            Map<Integer, Integer> lifted = kernel.lift(reduced.toMatching(MatchingEngine.COMPACT_BLOSSOM.solve(reduced)));
+            TestGraphs.assertMatching(graph, lifted, TestGraphs.maximumMatchingSize(graph));
+        }
+    }
+
+    @Test
+    void solverWithKernelizationFindsMaximumMatchings() {
+        Random random = new Random(2);
+        MatchingSolver solver = new MatchingSolver();
+        solver.setKernelization(true);
+        for (int trial = 0; trial < 400; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(16), 0.05 + 0.4 * random.nextDouble(), false, 7);
+            MatchingResult result = solver.solve(graph);
+            TestGraphs.assertMatching(graph, result.getMatching(), TestGraphs.maximumMatchingSize(graph));
+            assertNotNull(result.getKernel());
+        }
+    }
+
+    @Test
+    void pathIsReducedCompletely() {
+        Graph path = new Graph();
+        for (int v = 0; v < 7; v++) {
+            path.addVertex(new Vertex(v, 0, 0));
+            if (v > 0) {
+                path.addEdge(v - 1, v);
+            }
+        }
+        MatchingKernel kernel = new MatchingKernel(path);
+        assertEquals(0, kernel.getKernelEdges());
+        TestGraphs.assertMatching(path, kernel.lift(new HashMap<>()), 3);
+    }
+}
@@ -0,0 +1,38 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the process-wide totals add up the statistics of every solve.
+ */
+class MatchingStatsMonitorTest {
+    @Test
+    void totalsIncludeEverySolve() {
+        Graph graph = TestGraphs.random(new Random(1), 12, 0.5, true, 5);
+        MatchingStatsMonitor monitor = MatchingStatsMonitor.getInstance();
+        long solves = monitor.getSolves(), phases = monitor.getPhases(), augmentations = monitor.getAugmentations();
+        long searches = monitor.getSearches();
+        MatchingStats stats = new MatchingSolver().solve(graph).getStats();
+        assertTrue(stats.getPhases() > 0);
+        assertEquals(solves + 1, monitor.getSolves());
+        assertEquals(searches + stats.getSearches(), monitor.getSearches());
+        assertEquals(phases + stats.getPhases(), monitor.getPhases());
+        assertEquals(augmentations + stats.getAugmentations(), monitor.getAugmentations());
+    }
+
+    @Test
+    void disabledMonitorRecordsNothing() {
+        Graph graph = TestGraphs.random(new Random(2), 12, 0.5, false, 5);
+        MatchingStatsMonitor monitor = MatchingStatsMonitor.getInstance();
+        monitor.setEnabled(false);
+        try {
+            long solves = monitor.getSolves();
+            new MatchingSolver().solve(graph);
+            assertEquals(solves, monitor.getSolves());
+        } finally {
+            monitor.setEnabled(true);
+        }
+    }
+}
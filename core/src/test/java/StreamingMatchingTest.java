@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the streaming matcher returns valid matchings within its proven bounds.
+ */
+class StreamingMatchingTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void matchingsAreValidAndWithinTheirBounds() throws IOException {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 1000; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), false, 0);
+            StreamingMatching streaming = new StreamingMatching();
+            streaming.run(edges(graph, random.nextLong()), random.nextInt(5));
+            Map<Integer, Integer> matching = streaming.getMatching();
+            TestGraphs.assertMatching(graph, matching, streaming.size());
+            int optimum = TestGraphs.maximumMatchingSize(graph);
+            assertTrue(2 * streaming.size() >= optimum, "a maximal matching has at least half the optimum");
+            assertTrue(streaming.getUpperBound() >= optimum, "bound " + streaming.getUpperBound() + " below optimum " + optimum);
+        }
+    }
+
+    @Test
+    void negativeIdsAreOrdinaryVertices() throws IOException {
+        StreamingMatching streaming = new StreamingMatching();
+        streaming.accept(5, -1);
+        streaming.accept(5, 7);
+        assertEquals(1, streaming.size());
+        assertEquals(-1, streaming.mateOf(5));
+        assertEquals(5, streaming.mateOf(-1));
+        assertFalse(streaming.isMatched(7));
+        assertThrows(IllegalArgumentException.class, () -> streaming.mateOf(7));
+
+        Random random = new Random(4);
+        for (int trial = 0; trial < 1000; trial++) {
+            // Ids -7, -4, -1, 2, ... so that -1 is a vertex of every graph with at least three vertices
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), false, -7);
+            StreamingMatching negative = new StreamingMatching();
+            negative.run(edges(graph, trial), random.nextInt(5));
+            TestGraphs.assertMatching(graph, negative.getMatching(), negative.size());
+            assertTrue(negative.getUpperBound() >= TestGraphs.maximumMatchingSize(graph));
+        }
+    }
+
+    @Test
+    void passWithoutAugmentationCertifiesTwoThirds() throws IOException {
+        Random random = new Random(2);
+        for (int trial = 0; trial < 500; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), false, 0);
+            StreamingMatching streaming = new StreamingMatching();
+            // Enough passes for the last one to find nothing
+            streaming.run(edges(graph, trial), graph.getNumVertices());
+            assertTrue(3 * streaming.size() >= 2 * TestGraphs.maximumMatchingSize(graph));
+        }
+    }
+
+    @Test
+    void warmStartsTheBlossomSearch() throws IOException {
+        Random random = new Random(3);
+        for (int trial = 0; trial < 200; trial++) {
+            Graph graph = TestGraphs.random(random, 1 + random.nextInt(14), random.nextDouble(), false, 0);
+            StreamingMatching streaming = new StreamingMatching();
+            streaming.run(edges(graph, trial), 2);
+            EdmondsBlossomAlgorithm eba = new EdmondsBlossomAlgorithm(graph);
+            eba.setInitialMatching(streaming.getMatching());
+            TestGraphs.assertMatching(graph, eba.findMaximumMatching(), TestGraphs.maximumMatchingSize(graph));
+            assertEquals(streaming.size(), eba.getWarmStartSize());
+        }
+    }
+
+    @Test
+    void readsFilesAndReportsItsWork() throws IOException {
+        Path file = directory.resolve("path.txt");
+        Files.writeString(file, "1 2\n2 3\n3 4\n");
+        StreamingMatching streaming = new StreamingMatching();
+        streaming.run(StreamingMatching.file(file), 3);
+        assertEquals(2, streaming.size());
+        assertEquals(2, streaming.getPasses());
+        assertEquals(6, streaming.getEdgesRead());
+        assertTrue(streaming.getPeakMemoryBytes() > 0);
+    }
+
+    // The edges of the graph in a fixed shuffled order, the same on every pass
+    private static StreamingMatching.EdgeSource edges(Graph graph, long seed) {
+        List<int[]> edges = new ArrayList<>();
+        for (int u : graph.getVertices()) {
+            for (int v : graph.getNeighbors(u)) {
+                if (u < v) {
+                    edges.add(new int[]{u, v});
+                }
+            }
+        }
+        Collections.shuffle(edges, new Random(seed));
+        return action -> {
+            for (int[] edge : edges) {
+                action.accept(edge[0], edge[1]);
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Small random graphs with a brute-force maximum matching to check the engines against.
+ */
+final class TestGraphs {
+    private TestGraphs() {
+    }
+
+    /**
+     * Builds a random simple graph with ids spread out from the given base, so ids and dense indices differ.
+     * @param random the source of randomness
+     * @param n the number of vertices, at most 16 for {@link #maximumMatchingSize(Graph)}
+     * @param p the probability of each edge
+     * @param bipartite whether to keep only edges between even and odd positions
+     * @param idBase the id of the first vertex
+     */
+    static Graph random(Random random, int n, double p, boolean bipartite, int idBase) {
+        Graph graph = new Graph();
+        for (int i = 0; i < n; i++) {
+            graph.addVertex(new Vertex(idBase + 3 * i, 0, 0));
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if ((!bipartite || ((i ^ j) & 1) == 1) && random.nextDouble() < p) {
+                    graph.addEdge(idBase + 3 * i, idBase + 3 * j);
+                }
+            }
+        }
+        return graph;
+    }
+
+    // Exact size of a maximum matching by dynamic programming over vertex subsets
+    static int maximumMatchingSize(Graph graph) {
+        CompactGraph compact = graph.freeze();
+        int n = compact.getNumVertices();
+        if (n > 20) {
+            throw new IllegalArgumentException("Too many vertices for brute force: " + n);
+        }
+        int[] adjacency = new int[n];
+        for (int v = 0; v < n; v++) {
+            for (int e = compact.firstEdge(v); e < compact.endEdge(v); e++) {
+                adjacency[v] |= 1 << compact.target(e);
+            }
+        }
+        int[] best = new int[1 << n];
+        for (int set = 1; set < best.length; set++) {
+            // Either the lowest vertex of the set stays free, or it is matched to a neighbor in the set
+            int v = Integer.numberOfTrailingZeros(set);
+            int rest = set & ~(1 << v);
+            int value = best[rest];
+            for (int candidates = adjacency[v] & rest; candidates != 0; candidates &= candidates - 1) {
+                int u = Integer.numberOfTrailingZeros(candidates);
+                value = Math.max(value, 1 + best[rest & ~(1 << u)]);
+            }
+            best[set] = value;
+        }
+        return best[best.length - 1];
+    }
+
+    // Asserts that the map is a symmetric matching whose pairs are edges of the graph
+    static void assertValidMatching(Graph graph, Map<Integer, Integer> matching) {
+        for (Map.Entry<Integer, Integer> pair : matching.entrySet()) {
+            int u = pair.getKey(), v = pair.getValue();
+            assertEquals(u, matching.get(v), "pair " + u + "-" + v + " is not stored in both directions");
+            assertTrue(graph.hasEdge(u, v), "pair " + u + "-" + v + " is not an edge");
+        }
+    }
+
+    // Asserts that the map is a valid matching of the graph with the given number of pairs
+    static void assertMatching(Graph graph, Map<Integer, Integer> matching, int expectedSize) {
+        assertValidMatching(graph, matching);
+        assertEquals(expectedSize, matching.size() / 2, "matching size");
+    }
+}
@@ -0,0 +1,260 @@
+import java.util.Arrays;
+
+/**
+ * Search state of the blossom algorithms: a forest of alternating trees over dense vertex indices.
+ * Labels, parents and blossom bases live in primitive arrays that are stamped with the epoch of the
+ * current search, so {@link #clear()} costs O(1) and a search only pays for the vertices it touches.
+ * Contracted blossoms are kept in a union-find structure with path compression.
+ */
+class AlternatingForest {
+    static final int NONE = -1;
+    private static final byte UNLABELED = 0;
+    private static final byte EVEN = 1;
+    private static final byte ODD = 2;
+
+    private final int[] mate;         // shared with the solver that owns this forest
+    private final int[] stamp;        // epoch in which the vertex state below was last reset
+    private int epoch;
+    private final byte[] label;
+    private final int[] parent;       // for odd vertices the even tree parent; redirected around blossoms
+    private final int[] root;
+    private final int[] blossom;      // union-find parent
+    private final int[] blossomBase;  // base vertex of each union-find representative
+    private final int[] queue;        // even vertices waiting to be scanned
+    private int head, tail;
+    private final int[] lcaMark;
+    private int lcaStamp;
+    private final int[] cycle;        // vertices of the last contracted blossom
+    private int cycleSize;
+    private final MatchingStats stats;
+
+    /**
+     * Creates an empty forest.
+     * @param mate the mate array of the solver, read and flipped in place by {@link #augment(int, int)}
+     */
+    AlternatingForest(int[] mate) {
+        this(mate, new MatchingStats());
+    }
+
+    /**
+     * Creates an empty forest that counts its work into the given statistics.
+     * @param mate the mate array of the solver, read and flipped in place by {@link #augment(int, int)}
+     * @param stats receives the dequeued vertices, shrunk blossoms and LCA steps
+     */
+    AlternatingForest(int[] mate, MatchingStats stats) {
+        int n = mate.length;
+        this.mate = mate;
+        this.stats = stats;
+        this.stamp = new int[n];
+        this.label = new byte[n];
+        this.parent = new int[n];
+        this.root = new int[n];
+        this.blossom = new int[n];
+        this.blossomBase = new int[n];
+        this.queue = new int[n];
+        this.lcaMark = new int[n];
+        this.cycle = new int[n];
+    }
+
+    // Forgets all trees in O(1) by moving to a new epoch
+    void clear() {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 0;
+        }
+        epoch++;
+        head = 0;
+        tail = 0;
+    }
+
+    // Starts a new tree at the free vertex r
+    void addRoot(int r) {
+        touch(r);
+        label[r] = EVEN;
+        root[r] = r;
+        queue[tail++] = r;
+    }
+
+    // Next even vertex to scan, or NONE when the forest cannot grow any further
+    int poll() {
+        if (head == tail) {
+            return NONE;
+        }
+        stats.verticesDequeued++;
+        return queue[head++];
+    }
+
+    boolean isLabeled(int v) {
+        return stamp[v] == epoch && label[v] != UNLABELED;
+    }
+
+    boolean isOdd(int v) {
+        return stamp[v] == epoch && label[v] == ODD;
+    }
+
+    // Root of the tree containing the labeled vertex v
+    int rootOf(int v) {
+        return root[v];
+    }
+
+    // Base of the outermost blossom containing v, or v itself
+    int baseOf(int v) {
+        return blossomBase[find(v)];
+    }
+
+    // Tree parent of the odd vertex v
+    int parentOf(int v) {
+        return parent[v];
+    }
+
+    // Adds the matched, unlabeled vertex u as an odd child of the even vertex v, and its mate as an even grandchild
+    void grow(int v, int u) {
+        int w = mate[u];
+        touch(u);
+        label[u] = ODD;
+        parent[u] = v;
+        root[u] = root[v];
+        touch(w);
+        label[w] = EVEN;
+        root[w] = root[v];
+        queue[tail++] = w;
+    }
+
+    /**
+     * Contracts the odd cycle closed by an edge between two even vertices of the same tree.
+     * The odd vertices of the cycle become even and are queued for scanning.
+     * @return the base of the new blossom
+     */
+    int shrinkBlossom(int v, int u) {
+        int lca = findLowestCommonAncestor(v, u);
+        stats.blossomsShrunk++;
+        cycleSize = 0;
+        cycle[cycleSize++] = lca;
+        markPath(v, lca, u);
+        markPath(u, lca, v);
+        // Merge only after both walks, since they compare blossom bases that a merge would change
+        for (int i = 1; i < cycleSize; i++) {
+            union(cycle[i], lca);
+        }
+        return lca;
+    }
+
+    // Number of vertices recorded on the cycle of the last contracted blossom
+    int getCycleSize() {
+        return cycleSize;
+    }
+
+    // Vertex i of the cycle of the last contracted blossom
+    int getCycleVertex(int i) {
+        return cycle[i];
+    }
+
+    /**
+     * Flips the matching along the augmenting path root(v) .. v - u .. root(u).
+     * Either u is a free vertex outside the forest, or it is an even vertex of another tree.
+     */
+    void augment(int v, int u) {
+        int oldMate = mate[u];
+        flipToRoot(u, v);
+        if (oldMate != NONE) {
+            flipToRoot(oldMate, parent[oldMate]);
+        }
+    }
+
+    /**
+     * Writes the tree path from the even vertex v up to its root into out, starting with v.
+     * @return the number of vertices written
+     */
+    int pathToRoot(int v, int[] out) {
+        int length = 0;
+        out[length++] = v;
+        while (mate[v] != NONE) {
+            int odd = mate[v];
+            out[length++] = odd;
+            v = parent[odd];
+            out[length++] = v;
+        }
+        return length;
+    }
+
+    private void touch(int v) {
+        if (stamp[v] != epoch) {
+            stamp[v] = epoch;
+            label[v] = UNLABELED;
+            parent[v] = NONE;
+            blossom[v] = v;
+            blossomBase[v] = v;
+        }
+    }
+
+    private int findLowestCommonAncestor(int a, int b) {
+        if (lcaStamp == Integer.MAX_VALUE) {
+            Arrays.fill(lcaMark, 0);
+            lcaStamp = 0;
+        }
+        lcaStamp++;
+        long steps = 0;
+        while (true) {
+            steps++;
+            a = baseOf(a);
+            lcaMark[a] = lcaStamp;
+            if (mate[a] == NONE) break;
+            a = parent[mate[a]];
+        }
+        while (true) {
+            steps++;
+            b = baseOf(b);
+            if (lcaMark[b] == lcaStamp) {
+                stats.lcaSteps += steps;
+                return b;
+            }
+            b = parent[mate[b]];
+        }
+    }
+
+    // Records the blossoms between v and the lca on the cycle, redirecting parents around it
+    private void markPath(int v, int lca, int child) {
+        while (baseOf(v) != lca) {
+            int m = mate[v];
+            parent[v] = child;
+            cycle[cycleSize++] = v;
+            cycle[cycleSize++] = m;
+            if (label[m] == ODD) {
+                label[m] = EVEN;
+                queue[tail++] = m;
+            }
+            child = m;
+            v = parent[m];
+        }
+    }
+
+    // Matches x with the even vertex px, then walks px's tree path to its root flipping every edge
+    private void flipToRoot(int x, int px) {
+        while (true) {
+            int next = mate[px];
+            mate[x] = px;
+            mate[px] = x;
+            if (next == NONE) break;
+            x = next;
+            px = parent[x];
+        }
+    }
+
+    private int find(int v) {
+        if (stamp[v] != epoch) return v;
+        while (blossom[v] != v) {
+            blossom[v] = blossom[blossom[v]];
+            v = blossom[v];
+        }
+        return v;
+    }
+
+    // Attaches the set of v to the set of the lca, keeping the lca as base
+    private void union(int v, int lca) {
+        int rv = find(v);
+        int rl = find(lca);
+        if (rv != rl) {
+            blossom[rv] = rl;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+/**
+ * {@link CompactGraph} backed by plain int arrays on the heap.
+ */
+final class ArrayCompactGraph extends CompactGraph {
+    private final int[] ids;      // dense index -> vertex id, sorted ascending
+    private final int[] offsets;  // length n + 1
+    private final int[] targets;  // length 2 * |E|
+
+    /**
+     * Wraps already built CSR arrays. The arrays are used as is and must not be modified afterwards.
+     * @param ids the vertex id of each dense index, in ascending order
+     * @param offsets the start of each adjacency range, with offsets[n] == targets.length
+     * @param targets the dense indices of the neighbors
+     */
+    ArrayCompactGraph(int[] ids, int[] offsets, int[] targets) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    @Override
+    public int getNumVertices() {
+        return ids.length;
+    }
+
+    @Override
+    public int getNumEdges() {
+        return targets.length / 2;
+    }
+
+    @Override
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    @Override
+    public int indexOf(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        return offsets[v];
+    }
+
+    @Override
+    public int endEdge(int v) {
+        return offsets[v + 1];
+    }
+
+    @Override
+    public int target(int position) {
+        return targets[position];
+    }
+}
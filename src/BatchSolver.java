@@ -0,0 +1,390 @@
+import java.io.*;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Headless command-line mode that solves many graph files concurrently.
+ * Every file is a job on its own virtual thread when the runtime has them (Java 21 and later),
+ * or on a small platform thread pool otherwise. A semaphore lets at most one job per core run the
+ * CPU-bound solve while others read their input, and a second one bounds the graphs held in memory.
+ * Each result is written as one line, in text or JSON Lines, as soon as its job finishes.
+ */
+public final class BatchSolver {
+    private static final String USAGE = "usage: Main [--jsonl] [--no-pairs] [--engine NAME] [--warm-start NAME]"
+            + " [--kernel] [--parallel] [--threads N] [--cache ENTRIES]"
+            + " [--time-limit MS] [--epsilon E] [--off-heap] FILE|DIRECTORY...";
+
+    private final Writer out;
+    private boolean jsonLines;
+    private boolean pairs = true;
+    private MatchingEngine engine;
+    private WarmStart warmStart = WarmStart.NONE;
+    private boolean kernelization;
+    private boolean parallel;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int cacheEntries;
+    private MatchingBudget budget = MatchingBudget.UNLIMITED;
+    private boolean offHeap;
+    private MatchingCache cache;
+
+    /**
+     * Creates a batch that writes its results to the given writer.
+     * @param out receives one line per file, flushed as each job finishes
+     */
+    public BatchSolver(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Parses the command line, solves every file and writes the results to standard output.
+     * @param args the options and the files or directories to solve
+     * @return the process exit code: 0 on success, 1 if any file failed, 2 on a usage error
+     */
+    public static int run(String[] args) {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        BatchSolver batch = new BatchSolver(out);
+        List<String> inputs = new ArrayList<>();
+        double timeLimitMillis = 0, epsilon = 0;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--jsonl":
+                        batch.setJsonLines(true);
+                        break;
+                    case "--no-pairs":
+                        batch.setPairs(false);
+                        break;
+                    case "--engine":
+                        batch.setEngine(MatchingEngine.valueOf(value(args, ++i).toUpperCase()));
+                        break;
+                    case "--warm-start":
+                        batch.setWarmStart(WarmStart.valueOf(value(args, ++i).toUpperCase()));
+                        break;
+                    case "--kernel":
+                        batch.setKernelization(true);
+                        break;
+                    case "--parallel":
+                        batch.setParallel(true);
+                        break;
+                    case "--threads":
+                        batch.setThreads(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--cache":
+                        batch.setCacheEntries(Integer.parseInt(value(args, ++i)));
+                        break;
+                    case "--time-limit":
+                        timeLimitMillis = Double.parseDouble(value(args, ++i));
+                        break;
+                    case "--epsilon":
+                        epsilon = Double.parseDouble(value(args, ++i));
+                        break;
+                    case "--off-heap":
+                        batch.setOffHeap(true);
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("unknown option " + args[i]);
+                        }
+                        inputs.add(args[i]);
+                }
+            }
+            if (inputs.isEmpty()) {
+                throw new IllegalArgumentException("no input files");
+            }
+            batch.setBudget(new MatchingBudget((long) (timeLimitMillis * 1e6), 0, epsilon));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        try {
+            List<Path> files = listFiles(inputs);
+            long start = System.nanoTime();
+            int failed = batch.solveAll(files);
+            System.err.printf("solved %d of %d files in %.1f ms%n", files.size() - failed, files.size(),
+                    (System.nanoTime() - start) / 1e6);
+            if (batch.getCache() != null) {
+                System.err.println(batch.getCache());
+            }
+            return failed == 0 ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    // Writes JSON Lines instead of tab-separated text. Defaults to false
+    public void setJsonLines(boolean jsonLines) {
+        this.jsonLines = jsonLines;
+    }
+
+    // Whether every matched pair is written, not only the size. Defaults to true
+    public void setPairs(boolean pairs) {
+        this.pairs = pairs;
+    }
+
+    // Engine of every solve, or null to let MatchingSolver choose per graph. Defaults to null
+    public void setEngine(MatchingEngine engine) {
+        this.engine = engine;
+    }
+
+    public void setWarmStart(WarmStart warmStart) {
+        this.warmStart = warmStart;
+    }
+
+    public void setKernelization(boolean kernelization) {
+        this.kernelization = kernelization;
+    }
+
+    // Splits each graph into components solved on the common fork-join pool. Defaults to false
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets how many solves may run at the same time. Defaults to the number of available processors.
+     * @param threads the number of concurrent solves, at least 1
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Answers files whose edge set was already solved in this batch from a {@link MatchingCache}.
+     * @param cacheEntries the number of matchings to keep, or 0 to solve every file. Defaults to 0
+     */
+    public void setCacheEntries(int cacheEntries) {
+        if (cacheEntries < 0) {
+            throw new IllegalArgumentException("cache entries must not be negative");
+        }
+        this.cacheEntries = cacheEntries;
+    }
+
+    // Limits every solve, turning it into an anytime solve; see MatchingSolver.setBudget. Defaults to unlimited
+    public void setBudget(MatchingBudget budget) {
+        this.budget = budget;
+    }
+
+    // Loads the graphs into direct memory with GraphLoader.loadOffHeap, for graphs larger than the heap. Defaults to false
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    // Cache of the last solveAll, or null if caching is off
+    public MatchingCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Solves every file and writes one line per file in the order the jobs finish.
+     * A file that cannot be read or parsed produces an error line instead of stopping the batch, and so does
+     * one whose load or solve throws an Error such as OutOfMemoryError or StackOverflowError, since the
+     * graph that caused it is dropped with the job and the other files may still fit.
+     * @param files the graph files, loaded with {@link GraphLoader#load(Path)}
+     * @return the number of files that failed
+     * @throws IOException if the output cannot be written
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the jobs
+     */
+    public int solveAll(List<Path> files) throws IOException, InterruptedException {
+        MatchingSolver solver = new MatchingSolver(engine);
+        solver.setWarmStart(warmStart);
+        solver.setKernelization(kernelization);
+        solver.setParallel(parallel);
+        solver.setBudget(budget);
+        cache = cacheEntries > 0 ? new MatchingCache(solver, cacheEntries, 1L << 24) : null;
+        Semaphore solving = new Semaphore(threads);
+        Semaphore inFlight = new Semaphore(2 * threads); // loaded graphs waiting for a solve permit
+        List<Future<Boolean>> jobs = new ArrayList<>(files.size());
+        ExecutorService executor = newExecutor(2 * threads);
+        try {
+            for (Path file : files) {
+                jobs.add(executor.submit(() -> solveFile(file, solver, inFlight, solving)));
+            }
+            int failed = 0;
+            for (Future<Boolean> job : jobs) {
+                try {
+                    if (!job.get()) {
+                        failed++;
+                    }
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+            return failed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Loads and solves one file and writes its line; returns whether it succeeded
+    private boolean solveFile(Path file, MatchingSolver solver, Semaphore inFlight, Semaphore solving) throws IOException, InterruptedException {
+        inFlight.acquire();
+        try {
+            long loadStart = System.nanoTime();
+            CompactGraph graph;
+            MatchingResult result;
+            try {
+                graph = offHeap ? GraphLoader.loadOffHeap(file) : GraphLoader.load(file);
+            } catch (IOException | RuntimeException | Error e) {
+                writeError(file, e);
+                return false;
+            }
+            long loadNanos = System.nanoTime() - loadStart;
+
+            solving.acquire();
+            try {
+                result = cache != null ? cache.solve(graph) : solver.solve(graph);
+            } catch (RuntimeException | Error e) {
+                writeError(file, e);
+                return false;
+            } finally {
+                solving.release();
+            }
+            writeResult(file, graph, result, loadNanos);
+            return true;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private void writeResult(Path file, CompactGraph graph, MatchingResult result, long loadNanos) throws IOException {
+        StringBuilder line = new StringBuilder(pairs ? 64 + 24 * result.size() : 128);
+        if (jsonLines) {
+            line.append("{\"file\":");
+            appendJsonString(line, file.toString());
+            line.append(",\"vertices\":").append(graph.getNumVertices())
+                    .append(",\"edges\":").append(graph.getNumEdges())
+                    .append(",\"size\":").append(result.size())
+                    .append(",\"upperBound\":").append(result.getUpperBound())
+                    .append(",\"engine\":\"").append(result.getEngine()).append('"')
+                    .append(",\"loadMillis\":").append(millis(loadNanos))
+                    .append(",\"solveMillis\":").append(millis(result.getElapsedNanos()));
+            if (pairs) {
+                line.append(",\"pairs\":[");
+                result.forEachPair((u, v) -> line.append('[').append(u).append(',').append(v).append("],"));
+                if (result.size() > 0) {
+                    line.setLength(line.length() - 1);
+                }
+                line.append(']');
+            }
+            line.append('}');
+        } else {
+            line.append(file).append('\t').append(result.size()).append('\t').append(result.getUpperBound())
+                    .append('\t').append(result.getEngine())
+                    .append('\t').append(millis(loadNanos)).append(" ms\t").append(millis(result.getElapsedNanos())).append(" ms");
+            if (pairs) {
+                line.append('\t');
+                result.forEachPair((u, v) -> line.append(u).append('-').append(v).append(' '));
+                if (result.size() > 0) {
+                    line.setLength(line.length() - 1);
+                }
+            }
+        }
+        writeLine(line);
+    }
+
+    private void writeError(Path file, Throwable e) throws IOException {
+        StringBuilder line = new StringBuilder();
+        // An Error's message, such as "Java heap space", means little without its type
+        String message = e.getMessage() == null ? e.getClass().getSimpleName()
+                : e instanceof Error ? e.getClass().getSimpleName() + ": " + e.getMessage() : e.getMessage();
+        if (jsonLines) {
+            line.append("{\"file\":");
+            appendJsonString(line, file.toString());
+            line.append(",\"error\":");
+            appendJsonString(line, message);
+            line.append('}');
+        } else {
+            line.append(file).append("\terror\t").append(message.replace('\n', ' '));
+        }
+        writeLine(line);
+    }
+
+    // Lines of concurrent jobs must not interleave, and each is flushed so results stream out
+    private void writeLine(CharSequence line) throws IOException {
+        synchronized (out) {
+            out.append(line).append('\n');
+            out.flush();
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static void appendJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Expands the command-line inputs into graph files. Directories contribute every regular file
+     * below them in sorted order; hidden files are skipped.
+     * @param inputs files and directories
+     * @return the files to solve
+     * @throws IOException if a directory cannot be listed
+     */
+    static List<Path> listFiles(List<String> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String input : inputs) {
+            Path path = Paths.get(input);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    walk.filter(Files::isRegularFile)
+                            .filter(p -> !p.getFileName().toString().startsWith("."))
+                            .sorted()
+                            .forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+        return files;
+    }
+
+    // One virtual thread per job when available; the fallback pool still leaves room for loads next to the solves
+    private static ExecutorService newExecutor(int platformThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(platformThreads, runnable -> {
+                Thread thread = new Thread(runnable, "batch-solver");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("missing value for " + args[i - 1]);
+        }
+        return args[i];
+    }
+}
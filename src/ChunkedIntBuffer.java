@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Int array stored outside the Java heap, split into several {@link IntBuffer}s
+ * because a single buffer cannot address more than 2 GB.
+ * It is either mapped read-only from a file or allocated as writable direct memory, which the
+ * garbage collector neither scans nor copies and which is limited by -XX:MaxDirectMemorySize.
+ */
+final class ChunkedIntBuffer {
+    static final int CHUNK_SHIFT = 28;  // 2^28 ints, 1 GB per chunk
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final IntBuffer[] chunks;
+    private final int length;
+
+    private ChunkedIntBuffer(IntBuffer[] chunks, int length) {
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    /**
+     * Maps a little-endian int array stored in a file, read-only.
+     * The mapping stays valid after the channel is closed.
+     * @param channel the open file
+     * @param byteOffset the position of the first int in the file
+     * @param length the number of ints
+     */
+    static ChunkedIntBuffer map(FileChannel channel, long byteOffset, int length) throws IOException {
+        int count = (int) (((long) length + CHUNK_MASK) >>> CHUNK_SHIFT);
+        IntBuffer[] chunks = new IntBuffer[count];
+        for (int c = 0; c < count; c++) {
+            long first = (long) c << CHUNK_SHIFT;
+            long size = Math.min(1L << CHUNK_SHIFT, length - first);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, byteOffset + 4 * first, 4 * size)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+        }
+        return new ChunkedIntBuffer(chunks, length);
+    }
+
+    /**
+     * Allocates a zero-filled array in direct memory, in native byte order.
+     * @param length the number of ints
+     */
+    static ChunkedIntBuffer allocateDirect(int length) {
+        int count = (int) (((long) length + CHUNK_MASK) >>> CHUNK_SHIFT);
+        IntBuffer[] chunks = new IntBuffer[count];
+        for (int c = 0; c < count; c++) {
+            long first = (long) c << CHUNK_SHIFT;
+            int size = (int) Math.min(1L << CHUNK_SHIFT, length - first);
+            chunks[c] = ByteBuffer.allocateDirect(4 * size).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+        return new ChunkedIntBuffer(chunks, length);
+    }
+
+    int get(int index) {
+        return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+
+    // Only for arrays from allocateDirect; mapped arrays are read-only
+    void set(int index, int value) {
+        chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, value);
+    }
+
+    int length() {
+        return length;
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.*;
+
+/**
+ * Edmonds' blossom algorithm running directly on a {@link CompactGraph} snapshot.
+ * All search state lives in an epoch-stamped {@link AlternatingForest} indexed by dense vertex index,
+ * so a search allocates nothing, never boxes a vertex and only pays for the tree it explores.
+ */
+public class CompactBlossomMatching {
+    private static final int NONE = AlternatingForest.NONE;
+
+    private final CompactGraph graph;
+    private final int n;
+    private final int[] mate;
+    private final AlternatingForest forest;
+    private final MatchingStats stats = new MatchingStats();
+    private MatchingBudget budget = MatchingBudget.UNLIMITED;
+    private long upperBound;
+
+    /**
+     * Creates a solver for the given snapshot.
+     * @param graph the graph to match
+     */
+    public CompactBlossomMatching(CompactGraph graph) {
+        this.graph = graph;
+        this.n = graph.getNumVertices();
+        this.mate = new int[n];
+        this.forest = new AlternatingForest(mate, stats);
+    }
+
+    /**
+     * Lets the solves stop early with the best matching found so far; see {@link #getUpperBound()}.
+     * Defaults to {@link MatchingBudget#UNLIMITED}.
+     * @param budget the limits of every solve
+     */
+    public void setBudget(MatchingBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Computes a maximum matching.
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve() {
+        return solve(null);
+    }
+
+    /**
+     * Computes a maximum matching, starting from the given matching instead of the empty one.
+     * @param initialMate the mate of every dense index, or null to start from the empty matching
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve(int[] initialMate) {
+        if (initialMate != null) {
+            System.arraycopy(initialMate, 0, mate, 0, n);
+        } else {
+            Arrays.fill(mate, NONE);
+        }
+        long start = System.nanoTime();
+        // A failed search proves that its root stays free in some maximum matching, so every augmenting
+        // path of the current matching joins two free vertices that have not been searched from yet
+        int size = 0, unsearched = 0;
+        for (int v = 0; v < n; v++) {
+            if (mate[v] == NONE) {
+                unsearched++;
+            } else {
+                size++;
+            }
+        }
+        size /= 2;
+        boolean limited = !budget.isUnlimited();
+        long searches = 0, firstEdges = stats.edgesScanned;
+        for (int root = 0; root < n; root++) {
+            if (mate[root] == NONE) {
+                if (limited && (budget.isCloseEnough(size, size + unsearched / 2)
+                        || budget.isExhausted(searches, start, stats.edgesScanned - firstEdges))) {
+                    break;
+                }
+                searches++;
+                stats.searches++;
+                unsearched--;
+                if (augmentFrom(root)) {
+                    stats.augmentations++;
+                    size++;
+                    unsearched--;
+                } else {
+                    stats.failedSearches++;
+                }
+            }
+        }
+        upperBound = size + unsearched / 2;
+        stats.searchNanos += System.nanoTime() - start;
+        return mate.clone();
+    }
+
+    // Size of a maximum matching is at most this; equal to the size of the matching of the last solve unless its budget ran out
+    public long getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Computes a maximum matching and maps it back to vertex ids.
+     * @return the matching with each pair stored in both directions
+     */
+    public Map<Integer, Integer> findMaximumMatching() {
+        return graph.toMatching(solve());
+    }
+
+    // Work done by the solves of this instance so far
+    public MatchingStats getStats() {
+        return stats;
+    }
+
+    // Grows an alternating tree from the free vertex root and augments along the first path found
+    private boolean augmentFrom(int root) {
+        forest.clear();
+        forest.addRoot(root);
+        for (int v = forest.poll(); v != NONE; v = forest.poll()) {
+            int first = graph.firstEdge(v), end = graph.endEdge(v);
+            stats.edgesScanned += end - first; // counted per vertex, outside the hot loop
+            for (int e = first; e < end; e++) {
+                int u = graph.target(e);
+                if (mate[v] == u || forest.isOdd(u)) continue;
+                if (!forest.isLabeled(u)) {
+                    if (mate[u] == NONE) {
+                        stats.edgesScanned -= end - e - 1;
+                        forest.augment(v, u);
+                        return true;
+                    }
+                    forest.grow(v, u);
+                } else if (forest.baseOf(u) != forest.baseOf(v)) {
+                    forest.shrinkBlossom(v, u);
+                }
+            }
+        }
+        return false;
+    }
+}
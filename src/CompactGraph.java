@@ -0,0 +1,228 @@
+import java.util.*;
+
+/**
+ * Immutable snapshot of a graph in compressed sparse row (CSR) form.
+ * Vertex ids are remapped to dense indices 0..n-1 in increasing id order, and the neighbors
+ * of index v are stored at positions firstEdge(v) .. endEdge(v) - 1 of a targets array.
+ * Each undirected edge appears once in the adjacency of each of its endpoints.
+ * The arrays live on the heap for snapshots built in memory, or in a mapped file for
+ * snapshots opened with {@link CompactGraphFile#map(java.nio.file.Path)}.
+ */
+public abstract class CompactGraph {
+    /**
+     * Builds a snapshot in bulk from an edge list over dense indices, without going through {@link Graph}.
+     * Self-loops and repeated edges are dropped.
+     * @param ids the vertex id of each dense index in ascending order; its length is the number of vertices
+     * @param endpoints the flat edge list {u0, v0, u1, v1, ...} of dense indices
+     * @param numEdges the number of edges stored at the start of endpoints
+     * @return the snapshot
+     */
+    public static CompactGraph fromEdges(int[] ids, int[] endpoints, int numEdges) {
+        int n = ids.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < 2 * numEdges; i += 2) {
+            if (endpoints[i] != endpoints[i + 1]) {
+                offsets[endpoints[i] + 1]++;
+                offsets[endpoints[i + 1] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int i = 0; i < 2 * numEdges; i += 2) {
+            int u = endpoints[i];
+            int v = endpoints[i + 1];
+            if (u != v) {
+                targets[fill[u]++] = v;
+                targets[fill[v]++] = u;
+            }
+        }
+
+        // Sort every adjacency range and squeeze out repeated neighbors in place
+        int write = 0;
+        for (int v = 0; v < n; v++) {
+            int begin = offsets[v];
+            int end = offsets[v + 1];
+            Arrays.sort(targets, begin, end);
+            offsets[v] = write;
+            for (int e = begin; e < end; e++) {
+                if (e == begin || targets[e] != targets[e - 1]) {
+                    targets[write++] = targets[e];
+                }
+            }
+        }
+        offsets[n] = write;
+        return new ArrayCompactGraph(ids, offsets, write == targets.length ? targets : Arrays.copyOf(targets, write));
+    }
+
+    public abstract int getNumVertices();
+
+    // Number of undirected edges
+    public abstract int getNumEdges();
+
+    // Vertex id of a dense index
+    public abstract int getId(int index);
+
+    /**
+     * Returns the dense index of a vertex id.
+     * @param id the vertex identifier
+     * @return the dense index, or -1 if the vertex is not part of the snapshot
+     */
+    public int indexOf(int id) {
+        int low = 0;
+        int high = getNumVertices() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = getId(middle);
+            if (value < id) {
+                low = middle + 1;
+            } else if (value > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    public int degree(int v) {
+        return endEdge(v) - firstEdge(v);
+    }
+
+    /**
+     * Returns whether two vertices are adjacent, scanning the shorter of their adjacency ranges.
+     * @param fromId the id of one endpoint
+     * @param toId the id of the other endpoint
+     * @return true if both vertices are part of the snapshot and joined by an edge
+     */
+    public boolean hasEdge(int fromId, int toId) {
+        int u = indexOf(fromId);
+        int v = indexOf(toId);
+        if (u < 0 || v < 0) {
+            return false;
+        }
+        if (degree(u) > degree(v)) {
+            int swap = u;
+            u = v;
+            v = swap;
+        }
+        // Rows built by Graph.freeze are not sorted, so this is a linear scan
+        for (int e = firstEdge(u), end = endEdge(u); e < end; e++) {
+            if (target(e) == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // First position of the adjacency range of v
+    public abstract int firstEdge(int v);
+
+    // Position one past the end of the adjacency range of v
+    public abstract int endEdge(int v);
+
+    // Neighbor stored at a position of the targets array
+    public abstract int target(int position);
+
+    /**
+     * Copies this snapshot into direct memory outside the Java heap, about 4 bytes per vertex
+     * and 8 bytes per edge. Once the heap copy is dropped, the graph no longer counts against -Xmx.
+     * @return the off-heap copy
+     */
+    public CompactGraph toOffHeap() {
+        int n = getNumVertices();
+        ChunkedIntBuffer ids = ChunkedIntBuffer.allocateDirect(n);
+        ChunkedIntBuffer offsets = ChunkedIntBuffer.allocateDirect(n + 1);
+        ChunkedIntBuffer targets = ChunkedIntBuffer.allocateDirect(2 * getNumEdges());
+        int position = 0;
+        for (int v = 0; v < n; v++) {
+            ids.set(v, getId(v));
+            offsets.set(v, position);
+            for (int e = firstEdge(v), end = endEdge(v); e < end; e++) {
+                targets.set(position++, target(e));
+            }
+        }
+        offsets.set(n, position);
+        return new MappedCompactGraph(ids, offsets, targets);
+    }
+
+    /**
+     * Two-colors the graph with a breadth-first search, in time linear in its size.
+     * @return the side (0 or 1) of every dense index, or null if the graph has an odd cycle
+     */
+    public byte[] bipartition() {
+        int n = getNumVertices();
+        byte[] side = new byte[n];
+        boolean[] colored = new boolean[n];
+        int[] queue = new int[n];
+        for (int start = 0; start < n; start++) {
+            if (colored[start]) continue;
+            colored[start] = true;
+            int head = 0, tail = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e = firstEdge(v), end = endEdge(v); e < end; e++) {
+                    int u = target(e);
+                    if (!colored[u]) {
+                        colored[u] = true;
+                        side[u] = (byte) (1 - side[v]);
+                        queue[tail++] = u;
+                    } else if (side[u] == side[v]) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return side;
+    }
+
+    /**
+     * Labels the connected components with a breadth-first search, in time linear in the size of the graph.
+     * Components are numbered 0, 1, ... in the order of their smallest dense index.
+     * @return the component of every dense index
+     */
+    public int[] components() {
+        int n = getNumVertices();
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] queue = new int[n];
+        int count = 0;
+        for (int start = 0; start < n; start++) {
+            if (component[start] != -1) continue;
+            component[start] = count;
+            int head = 0, tail = 0;
+            queue[tail++] = start;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e = firstEdge(v), end = endEdge(v); e < end; e++) {
+                    int u = target(e);
+                    if (component[u] == -1) {
+                        component[u] = count;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            count++;
+        }
+        return component;
+    }
+
+    /**
+     * Converts a mate array indexed by dense index into the id-based matching map used by the GUI,
+     * with each matched pair stored in both directions.
+     * @param mate the mate of every dense index, or -1 for unmatched vertices
+     * @return the matching keyed by vertex id
+     */
+    public Map<Integer, Integer> toMatching(int[] mate) {
+        Map<Integer, Integer> matching = new HashMap<>();
+        for (int v = 0; v < mate.length; v++) {
+            if (mate[v] != -1) {
+                matching.put(getId(v), getId(mate[v]));
+            }
+        }
+        return matching;
+    }
+}
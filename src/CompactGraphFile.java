@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Versioned binary file format for {@link CompactGraph} snapshots, designed to be memory-mapped.
+ * All values are little-endian. A 64-byte header is followed by the ids, offsets and targets
+ * arrays, each starting on a 64-byte boundary:
+ * <pre>
+ *  0  int  magic "BLSM"
+ *  4  int  format version
+ *  8  long number of vertices n
+ * 16  long length of the targets array (2 |E|)
+ * 24  long file position of ids[n]
+ * 32  long file position of offsets[n + 1]
+ * 40  long file position of targets[2 |E|]
+ * </pre>
+ */
+public final class CompactGraphFile {
+    static final int MAGIC = 0x4D534C42; // "BLSM" read as a little-endian int
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int ALIGNMENT = 64;
+
+    private CompactGraphFile() {
+    }
+
+    /**
+     * Writes a snapshot to a file, replacing any existing content.
+     * @param graph the snapshot to save
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(CompactGraph graph, Path path) throws IOException {
+        int n = graph.getNumVertices();
+        long numTargets = 2L * graph.getNumEdges();
+        long idsPosition = HEADER_BYTES;
+        long offsetsPosition = align(idsPosition + 4L * n);
+        long targetsPosition = align(offsetsPosition + 4L * (n + 1));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(n).putLong(numTargets)
+                    .putLong(idsPosition).putLong(offsetsPosition).putLong(targetsPosition);
+            pad(buffer, channel, idsPosition);
+
+            for (int v = 0; v < n; v++) {
+                putInt(buffer, channel, graph.getId(v));
+            }
+            pad(buffer, channel, offsetsPosition);
+
+            for (int v = 0; v < n; v++) {
+                putInt(buffer, channel, graph.firstEdge(v));
+            }
+            putInt(buffer, channel, n == 0 ? 0 : graph.endEdge(n - 1));
+            pad(buffer, channel, targetsPosition);
+
+            for (int e = 0; e < numTargets; e++) {
+                putInt(buffer, channel, graph.target(e));
+            }
+            flush(buffer, channel);
+        }
+    }
+
+    /**
+     * Maps a snapshot file into memory without copying its arrays, after checking them in one pass.
+     * @param path the file written by {@link #write(CompactGraph, Path)}
+     * @return the snapshot, backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static CompactGraph map(Path path) throws IOException {
+        return map(path, true);
+    }
+
+    /**
+     * Maps a snapshot file into memory without copying its arrays.
+     * @param path the file written by {@link #write(CompactGraph, Path)}
+     * @param verify whether to check in one pass that the ids ascend, the offsets never decrease and every
+     *               target is a vertex. Without it only the header and the first and last offsets are checked,
+     *               so mapping takes constant time, but a corrupt trusted file fails later with an
+     *               IndexOutOfBoundsException or wrong results
+     * @return the snapshot, backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static CompactGraph map(Path path, boolean verify) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a graph snapshot file.");
+            }
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path + ".");
+            }
+            long n = header.getLong(8);
+            long numTargets = header.getLong(16);
+            long idsPosition = header.getLong(24);
+            long offsetsPosition = header.getLong(32);
+            long targetsPosition = header.getLong(40);
+            // Every position lies past the header and inside the file, so none of the sums below can overflow
+            long size = channel.size();
+            if (n < 0 || n >= Integer.MAX_VALUE || numTargets < 0 || numTargets > Integer.MAX_VALUE
+                    || idsPosition < HEADER_BYTES || idsPosition > size
+                    || offsetsPosition < HEADER_BYTES || offsetsPosition > size
+                    || targetsPosition < HEADER_BYTES || targetsPosition > size
+                    || idsPosition + 4 * n > offsetsPosition
+                    || offsetsPosition + 4 * (n + 1) > targetsPosition
+                    || targetsPosition + 4 * numTargets > size) {
+                throw new IOException("Corrupt snapshot header in " + path + ".");
+            }
+            ChunkedIntBuffer offsets = ChunkedIntBuffer.map(channel, offsetsPosition, (int) n + 1);
+            if (offsets.get(0) != 0 || offsets.get((int) n) != numTargets) {
+                throw new IOException("Corrupt snapshot offsets in " + path + ".");
+            }
+            ChunkedIntBuffer ids = ChunkedIntBuffer.map(channel, idsPosition, (int) n);
+            ChunkedIntBuffer targets = ChunkedIntBuffer.map(channel, targetsPosition, (int) numTargets);
+            if (verify) {
+                for (int v = 0; v < n; v++) {
+                    if (v > 0 && ids.get(v) <= ids.get(v - 1)) {
+                        throw new IOException("Corrupt snapshot ids in " + path + ".");
+                    }
+                    int first = offsets.get(v), end = offsets.get(v + 1);
+                    if (end < first || end > numTargets) {
+                        throw new IOException("Corrupt snapshot offsets in " + path + ".");
+                    }
+                    for (int e = first; e < end; e++) {
+                        int target = targets.get(e);
+                        if (target < 0 || target >= n) {
+                            throw new IOException("Corrupt snapshot targets in " + path + ".");
+                        }
+                    }
+                }
+            }
+            return new MappedCompactGraph(ids, offsets, targets);
+        }
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static void putInt(ByteBuffer buffer, FileChannel channel, int value) throws IOException {
+        if (buffer.remaining() < 4) {
+            flush(buffer, channel);
+        }
+        buffer.putInt(value);
+    }
+
+    // Writes zero bytes until the file reaches the given position
+    private static void pad(ByteBuffer buffer, FileChannel channel, long position) throws IOException {
+        flush(buffer, channel);
+        while (channel.position() < position) {
+            buffer.put((byte) 0);
+            if (channel.position() + buffer.position() == position) {
+                flush(buffer, channel);
+            }
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,228 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maximum matching computed independently on every connected component, in parallel on a {@link ForkJoinPool}.
+ * A maximum matching of a graph is exactly the union of maximum matchings of its components, so the
+ * components are found in linear time, cut out as separate snapshots and solved by fork-join tasks.
+ * Components are ordered by decreasing size and split into tasks of roughly equal vertex count,
+ * so a giant component is started first while idle workers steal the many small ones.
+ */
+public class ComponentMatching {
+    private static final int NONE = -1;
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 12; // vertices below which a task stops splitting
+
+    private final CompactGraph graph;
+    private final MatchingEngine engine;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int numComponents;
+    private final AtomicBoolean usedGeneralEngine = new AtomicBoolean();
+    private MatchingStats stats = new MatchingStats();
+
+    /**
+     * Creates a solver for the given snapshot.
+     * @param graph the graph to match
+     * @param engine the engine used on every component, or null to use Hopcroft-Karp on bipartite
+     *               components and {@link MatchingEngine#MICALI_VAZIRANI} on the others
+     */
+    public ComponentMatching(CompactGraph graph, MatchingEngine engine) {
+        this.graph = graph;
+        this.engine = engine;
+    }
+
+    /**
+     * Selects the pool that runs the component tasks. Defaults to the common pool.
+     * @param pool the pool to use
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Computes a maximum matching.
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve() {
+        return solve(null);
+    }
+
+    /**
+     * Computes a maximum matching, starting from the given matching instead of the empty one.
+     * @param initialMate the mate of every dense index, or null to start from the empty matching
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve(int[] initialMate) {
+        int n = graph.getNumVertices();
+        int[] component = graph.components();
+        numComponents = 0;
+        for (int c : component) {
+            numComponents = Math.max(numComponents, c + 1);
+        }
+
+        // Group the vertices by component with a counting sort; each group stays in ascending index order
+        int[] start = new int[numComponents + 1];
+        for (int c : component) {
+            start[c + 1]++;
+        }
+        for (int c = 0; c < numComponents; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] order = new int[n];
+        int[] local = new int[n];  // position of each vertex inside its component
+        int[] fill = Arrays.copyOf(start, numComponents);
+        for (int v = 0; v < n; v++) {
+            int c = component[v];
+            local[v] = fill[c] - start[c];
+            order[fill[c]++] = v;
+        }
+
+        // Largest components first, so the longest task starts before the pool fills up with small ones
+        Integer[] bySize = new Integer[numComponents];
+        for (int c = 0; c < numComponents; c++) {
+            bySize[c] = c;
+        }
+        Arrays.sort(bySize, (a, b) -> Integer.compare(start[b + 1] - start[b], start[a + 1] - start[a]));
+        int[] sorted = new int[numComponents];
+        long[] weight = new long[numComponents + 1]; // prefix sums of component sizes in sorted order
+        for (int i = 0; i < numComponents; i++) {
+            sorted[i] = bySize[i];
+            weight[i + 1] = weight[i] + start[sorted[i] + 1] - start[sorted[i]];
+        }
+
+        int[] mate = new int[n];
+        Arrays.fill(mate, NONE);
+        usedGeneralEngine.set(false);
+        stats = new MatchingStats();
+        long searchStart = System.nanoTime();
+        pool.invoke(new ComponentTask(sorted, weight, 0, numComponents, start, order, local, initialMate, mate));
+        // The components overlap in time, so the wall time of the whole pool replaces the sum of their times
+        stats.searchNanos = System.nanoTime() - searchStart;
+        return mate;
+    }
+
+    /**
+     * Computes a maximum matching and maps it back to vertex ids.
+     * @return the matching with each pair stored in both directions
+     */
+    public Map<Integer, Integer> findMaximumMatching() {
+        return graph.toMatching(solve());
+    }
+
+    // Number of connected components found by the last solve
+    public int getNumComponents() {
+        return numComponents;
+    }
+
+    // Work done on all components by the last solve
+    public MatchingStats getStats() {
+        return stats;
+    }
+
+    /**
+     * The engine that computed the last matching. Without a forced engine this is
+     * {@link MatchingEngine#HOPCROFT_KARP} when every component was bipartite, and {@link MatchingEngine#MICALI_VAZIRANI} otherwise.
+     */
+    public MatchingEngine getEngine() {
+        if (engine != null) {
+            return engine;
+        }
+        return usedGeneralEngine.get() ? MatchingEngine.MICALI_VAZIRANI : MatchingEngine.HOPCROFT_KARP;
+    }
+
+    // Solves one component; writes only to the mate entries of its own vertices
+    private void solveComponent(int c, int[] start, int[] order, int[] local, int[] initialMate, int[] mate) {
+        int first = start[c];
+        int size = start[c + 1] - first;
+        if (size == 1) {
+            return;
+        }
+        if (size == 2) {
+            mate[order[first]] = order[first + 1];
+            mate[order[first + 1]] = order[first];
+            return;
+        }
+
+        // Cut the component out as a snapshot whose ids are the global dense indices
+        int[] ids = Arrays.copyOfRange(order, first, first + size);
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] = offsets[i] + graph.degree(ids[i]);
+        }
+        int[] targets = new int[offsets[size]];
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            for (int e = graph.firstEdge(ids[i]), end = graph.endEdge(ids[i]); e < end; e++) {
+                targets[position++] = local[graph.target(e)];
+            }
+        }
+        CompactGraph part = new ArrayCompactGraph(ids, offsets, targets);
+
+        int[] partMate = null;
+        if (initialMate != null) {
+            partMate = new int[size];
+            for (int i = 0; i < size; i++) {
+                partMate[i] = initialMate[ids[i]] == NONE ? NONE : local[initialMate[ids[i]]];
+            }
+        }
+
+        int[] solved;
+        if (engine != null) {
+            solved = engine.solve(part, partMate, stats);
+        } else {
+            byte[] side = part.bipartition();
+            if (side != null) {
+                HopcroftKarpMatching solver = new HopcroftKarpMatching(part, side);
+                solved = solver.solve(partMate);
+                stats.add(solver.getStats());
+            } else {
+                usedGeneralEngine.set(true);
+                solved = MatchingEngine.MICALI_VAZIRANI.solve(part, partMate, stats);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            mate[ids[i]] = solved[i] == NONE ? NONE : ids[solved[i]];
+        }
+    }
+
+    // Solves the components sorted[from..to), splitting the range in halves of equal vertex count
+    private final class ComponentTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sorted;
+        private final long[] weight;
+        private final int from, to;
+        private final int[] start, order, local, initialMate, mate;
+
+        ComponentTask(int[] sorted, long[] weight, int from, int to,
+                      int[] start, int[] order, int[] local, int[] initialMate, int[] mate) {
+            this.sorted = sorted;
+            this.weight = weight;
+            this.from = from;
+            this.to = to;
+            this.start = start;
+            this.order = order;
+            this.local = local;
+            this.initialMate = initialMate;
+            this.mate = mate;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || weight[to] - weight[from] <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    solveComponent(sorted[i], start, order, local, initialMate, mate);
+                }
+                return;
+            }
+            long half = (weight[from] + weight[to]) / 2;
+            int split = from + 1;
+            while (split < to - 1 && weight[split] < half) {
+                split++;
+            }
+            invokeAll(new ComponentTask(sorted, weight, from, split, start, order, local, initialMate, mate),
+                    new ComponentTask(sorted, weight, split, to, start, order, local, initialMate, mate));
+        }
+    }
+}
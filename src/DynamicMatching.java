@@ -0,0 +1,241 @@
+import java.util.*;
+
+/**
+ * Maximum matching of a {@link Graph} that is kept up to date while the graph is edited.
+ * The matching is computed once when the object is created; after that every change reported through
+ * {@link GraphListener} is repaired with a few targeted augmenting-path searches instead of a full solve:
+ * <ul>
+ *   <li>adding an edge can raise the maximum by at most one, and only through a path that uses the new edge;</li>
+ *   <li>removing a matched edge frees its two endpoints, which need at most one search each;</li>
+ *   <li>removing a matched vertex frees its mate, which needs a single search.</li>
+ * </ul>
+ * A vertex that has no augmenting path keeps having none after the matching is augmented, so searching
+ * from the freed vertices alone restores a maximum matching.
+ */
+public class DynamicMatching implements GraphListener {
+    private static final int NONE = AlternatingForest.NONE;
+
+    private final Graph graph;
+    private final Graph.NeighborCursor neighbors;
+    private final IntIntHashMap index;  // vertex id -> dense slot
+    private int[] ids;            // dense slot -> vertex id
+    private boolean[] alive;      // false for slots of removed vertices
+    private int[] mate;
+    private AlternatingForest forest;
+    private int slots;
+    private int[] freeSlots;      // stack of the slots of removed vertices, reused before new ones
+    private int freeCount;
+    private int size;
+    private long searches;
+
+    /**
+     * Computes a maximum matching of the graph and starts following its changes.
+     * @param graph the graph to match
+     */
+    public DynamicMatching(Graph graph) {
+        this.graph = graph;
+        this.neighbors = graph.neighborCursor();
+        CompactGraph compact = graph.freeze();
+        int n = compact.getNumVertices();
+        this.index = new IntIntHashMap(n, NONE);
+        this.ids = new int[Math.max(n, 16)];
+        this.alive = new boolean[ids.length];
+        this.mate = new int[ids.length];
+        this.freeSlots = new int[ids.length];
+        Arrays.fill(mate, NONE);
+        int[] initial = MatchingEngine.COMPACT_BLOSSOM.solve(compact);
+        for (int v = 0; v < n; v++) {
+            ids[v] = compact.getId(v);
+            alive[v] = true;
+            index.put(ids[v], v);
+            mate[v] = initial[v];
+            if (initial[v] > v) {
+                size++;
+            }
+        }
+        this.slots = n;
+        this.forest = new AlternatingForest(mate);
+        graph.addGraphListener(this);
+    }
+
+    /**
+     * Stops following the changes of the graph. The matching keeps its last state.
+     */
+    public void detach() {
+        graph.removeGraphListener(this);
+    }
+
+    // Number of matched pairs
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the mate of a vertex.
+     * @param id the vertex id
+     * @return the id of its mate, or null if the vertex is unmatched or unknown
+     */
+    public Integer getMate(int id) {
+        int v = index.get(id);
+        if (v == NONE || mate[v] == NONE) {
+            return null;
+        }
+        return ids[mate[v]];
+    }
+
+    /**
+     * Returns a copy of the current matching.
+     * @return the matching with each pair stored in both directions
+     */
+    public Map<Integer, Integer> getMatching() {
+        Map<Integer, Integer> matching = new HashMap<>(4 * size);
+        for (int v = 0; v < slots; v++) {
+            if (alive[v] && mate[v] != NONE) {
+                matching.put(ids[v], ids[mate[v]]);
+            }
+        }
+        return matching;
+    }
+
+    // Number of augmenting-path searches run to repair the matching since it was created
+    public long getNumSearches() {
+        return searches;
+    }
+
+    @Override
+    public void onVertexAdded(int id) {
+        int existing = index.get(id);
+        if (existing != NONE) {
+            // The graph replaced the vertex and dropped its edges, so its old pair is gone
+            unmatchAndRepair(existing);
+            return;
+        }
+        int v;
+        if (freeCount > 0) {
+            v = freeSlots[--freeCount];
+        } else {
+            if (slots == ids.length) {
+                grow();
+            }
+            v = slots++;
+        }
+        ids[v] = id;
+        alive[v] = true;
+        mate[v] = NONE;
+        index.put(id, v);
+    }
+
+    @Override
+    public void onVertexRemoved(int id) {
+        int v = index.remove(id);
+        if (v == NONE) {
+            return;
+        }
+        alive[v] = false;
+        int w = mate[v];
+        mate[v] = NONE;
+        freeSlots[freeCount++] = v; // at most slots are free, so the stack never overflows
+        if (w != NONE) {
+            mate[w] = NONE;
+            size--;
+            repairFrom(w);
+        }
+    }
+
+    @Override
+    public void onEdgeAdded(int from, int to) {
+        int u = index.get(from);
+        int v = index.get(to);
+        if (u == NONE || v == NONE || u == v || mate[u] == v) {
+            return;
+        }
+        if (mate[u] == NONE && mate[v] == NONE) {
+            mate[u] = v;
+            mate[v] = u;
+            size++;
+        } else if (mate[u] == NONE) {
+            repairFrom(u);
+        } else if (mate[v] == NONE) {
+            repairFrom(v);
+        } else {
+            // Both ends are matched, so a new augmenting path joins two unknown free vertices through the edge
+            repairFrom(NONE);
+        }
+    }
+
+    @Override
+    public void onEdgeRemoved(int from, int to) {
+        int u = index.get(from);
+        int v = index.get(to);
+        if (u != NONE && v != NONE && mate[u] == v) {
+            unmatchAndRepair(u);
+        }
+    }
+
+    // Frees v and its mate, then searches for an augmenting path from each of them
+    private void unmatchAndRepair(int v) {
+        int w = mate[v];
+        if (w == NONE) {
+            return;
+        }
+        mate[v] = NONE;
+        mate[w] = NONE;
+        size--;
+        repairFrom(v);
+        if (mate[w] == NONE) {
+            repairFrom(w);
+        }
+    }
+
+    // Augments once from the free vertex root, or from any free vertex when root is NONE
+    private void repairFrom(int root) {
+        searches++;
+        if (augment(root)) {
+            size++;
+        }
+    }
+
+    private boolean augment(int root) {
+        forest.clear();
+        if (root != NONE) {
+            forest.addRoot(root);
+        } else {
+            for (int v = 0; v < slots; v++) {
+                if (alive[v] && mate[v] == NONE) {
+                    forest.addRoot(v);
+                }
+            }
+        }
+        for (int v = forest.poll(); v != NONE; v = forest.poll()) {
+            for (neighbors.reset(ids[v]); neighbors.hasNext(); ) {
+                int u = index.get(neighbors.next());
+                if (mate[v] == u || forest.isOdd(u)) continue;
+                if (!forest.isLabeled(u)) {
+                    if (mate[u] == NONE) {
+                        forest.augment(v, u);
+                        return true;
+                    }
+                    forest.grow(v, u);
+                } else if (forest.rootOf(u) != forest.rootOf(v)) {
+                    forest.augment(v, u);
+                    return true;
+                } else if (forest.baseOf(u) != forest.baseOf(v)) {
+                    forest.shrinkBlossom(v, u);
+                }
+            }
+        }
+        return false;
+    }
+
+    // Doubles the capacity; the forest holds on to the mate array, so it is rebuilt as well
+    private void grow() {
+        int capacity = 2 * ids.length;
+        ids = Arrays.copyOf(ids, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        int oldLength = mate.length;
+        mate = Arrays.copyOf(mate, capacity);
+        Arrays.fill(mate, oldLength, capacity, NONE);
+        forest = new AlternatingForest(mate);
+    }
+}
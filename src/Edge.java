@@ -6,6 +6,7 @@ import java.util.Objects;
 public class Edge {
     private final int from;
     private final int to;
+    int reverse; // position of the opposite edge (to, from) in the adjacency list of to, kept by Graph
 
     /**
      * Constructs an edge with a specified source and destination.
@@ -0,0 +1,7 @@
+/**
+ * Receives the edges of a graph one at a time, as two vertex ids, without boxing.
+ */
+@FunctionalInterface
+public interface EdgeConsumer {
+    void accept(int u, int v);
+}
@@ -1,218 +1,254 @@
 import java.util.*;
 
 public class EdmondsBlossomAlgorithm {
+    private static final int NONE = AlternatingForest.NONE;
+
     private Graph graph;
+    private CompactGraph compact;
+    private int[] mate;
+    private AlternatingForest forest;
     private Map<Integer, Integer> matching;
-    private Set<Integer> free;
-    private Map<Integer, Integer> label;
-    private Map<Integer, Integer> parent;
-    private Queue<Integer> queue;
-    private GraphView graphView;
-    private Map<Integer, Integer> base;
-    private int maxIterations = 1000;
-    private int maxPathLength = 100;
-    private Set<Integer> currentBlossom;
+    private Map<Integer, Integer> forestEdges; // child -> parent by vertex id, kept only while observing
+    private int[] pathBuffer;
+    private MatchingObserver observer;
+    private boolean observing;
+    private MatchingBudget budget = MatchingBudget.UNLIMITED;
+    private long upperBound;
+    private WarmStart warmStart = WarmStart.NONE;
+    private Map<Integer, Integer> initialMatching;
+    private long warmStartNanos;
+    private int warmStartSize;
+    private MatchingStats stats = new MatchingStats();
+
+    /**
+     * Creates a headless solver: no animation, no console output and no pauses between steps.
+     * @param graph the graph to match
+     */
+    public EdmondsBlossomAlgorithm(Graph graph) {
+        this(graph, MatchingObserver.NONE);
+    }
 
+    /**
+     * Creates a solver that animates every step of the search on the given view.
+     * @param graph the graph to match
+     * @param graphView the view to animate
+     */
     public EdmondsBlossomAlgorithm(Graph graph, GraphView graphView) {
+        this(graph, new GraphViewObserver(graphView));
+    }
+
+    /**
+     * Creates a solver that reports every step of the search to the given observer.
+     * @param graph the graph to match
+     * @param observer the observer to notify, or {@link MatchingObserver#NONE}
+     */
+    public EdmondsBlossomAlgorithm(Graph graph, MatchingObserver observer) {
         this.graph = graph;
         this.matching = new HashMap<>();
-        this.free = new HashSet<>();
-        this.label = new HashMap<>();
-        this.parent = new HashMap<>();
-        this.queue = new LinkedList<>();
-        this.graphView = graphView;
-        this.base = new HashMap<>();
-        this.currentBlossom = new HashSet<>();
+        this.forestEdges = new HashMap<>();
+        this.observer = observer;
+        this.observing = observer != MatchingObserver.NONE;
+    }
+
+    /**
+     * Selects the heuristic that builds the starting matching. Defaults to {@link WarmStart#NONE}.
+     * @param warmStart the warm-start heuristic
+     */
+    public void setWarmStart(WarmStart warmStart) {
+        this.warmStart = warmStart;
+    }
+
+    /**
+     * Starts the search from a known matching, for example one computed by an earlier run or by
+     * {@link StreamingMatching}. Takes precedence over the warm-start heuristic.
+     * The map may come from outside, so only pairs stored in both directions whose vertices are
+     * joined by an edge of the graph are used; any other entry is ignored.
+     * @param initialMatching a matching of this graph with each pair stored in both directions, or null
+     */
+    public void setInitialMatching(Map<Integer, Integer> initialMatching) {
+        this.initialMatching = initialMatching;
+    }
+
+    /**
+     * Lets the search stop early with the best matching found so far; see {@link #getUpperBound()}.
+     * Without a budget the search always runs to a maximum matching. Defaults to {@link MatchingBudget#UNLIMITED}.
+     * @param budget the limits of every run
+     */
+    public void setBudget(MatchingBudget budget) {
+        this.budget = budget;
+    }
+
+    // Size of a maximum matching is at most this; equal to the size of the last run's matching unless its budget ran out
+    public long getUpperBound() {
+        return upperBound;
+    }
+
+    // Time spent building the starting matching during the last run
+    public long getWarmStartNanos() {
+        return warmStartNanos;
+    }
+
+    // Number of pairs in the starting matching of the last run
+    public int getWarmStartSize() {
+        return warmStartSize;
+    }
+
+    // Work done by the last run
+    public MatchingStats getStats() {
+        return stats;
     }
 
     public Map<Integer, Integer> findMaximumMatching() {
         initialize();
-        int iterations = 0;
-        while (!free.isEmpty() && iterations < maxIterations) {
-            int v = free.iterator().next();
+        long start = System.nanoTime();
+        int n = compact.getNumVertices();
+        // A root whose search failed stays free in some maximum matching, so every augmenting path
+        // joins two free vertices that have not been searched from yet
+        long size = warmStartSize, unsearched = n - 2L * warmStartSize;
+        boolean limited = !budget.isUnlimited();
+        for (int v = 0; v < n; v++) {
+            if (mate[v] != NONE) continue;
+            if (limited && (budget.isCloseEnough(size, size + unsearched / 2)
+                    || budget.isExhausted(stats.searches, start, stats.edgesScanned))) {
+                break;
+            }
+            stats.searches++;
+            unsearched--;
             if (augment(v)) {
-                iterations = 0;
+                stats.augmentations++;
+                size++;
+                unsearched--;
             } else {
-                free.remove(v);
-                iterations++;
+                stats.failedSearches++;
+            }
+            if (observing) {
+                observer.onIteration(matching, forestEdges);
             }
-            System.out.println("Current matching: " + matching);
-            graphView.setMatchingEdges(matching);
-            graphView.setForest(parent);
-            graphView.repaint();
-            sleep(1000);
         }
+        upperBound = size + unsearched / 2;
+        stats.searchNanos = System.nanoTime() - start;
+        matching.clear();
+        matching.putAll(compact.toMatching(mate));
         return matching;
     }
 
     private void initialize() {
+        compact = graph.freeze();
+        int n = compact.getNumVertices();
+        mate = new int[n];
+        stats = new MatchingStats();
+        forest = new AlternatingForest(mate, stats);
+        pathBuffer = new int[n + 1];
+
+        long start = System.nanoTime();
+        if (initialMatching != null) {
+            Arrays.fill(mate, NONE);
+            for (Map.Entry<Integer, Integer> entry : initialMatching.entrySet()) {
+                if (entry.getKey() == null || entry.getValue() == null) {
+                    continue;
+                }
+                int id = entry.getKey(), mateId = entry.getValue();
+                // An inconsistent mate array would send the search around cycles that never reach a root
+                if (id == mateId || !Integer.valueOf(id).equals(initialMatching.get(mateId)) || !graph.hasEdge(id, mateId)) {
+                    continue;
+                }
+                int v = compact.indexOf(id);
+                int u = compact.indexOf(mateId);
+                if (mate[v] == NONE && mate[u] == NONE) {
+                    mate[v] = u;
+                    mate[u] = v;
+                }
+            }
+        } else {
+            System.arraycopy(warmStart.initialMatching(compact), 0, mate, 0, n);
+        }
+        warmStartNanos = System.nanoTime() - start;
+        stats.warmStartNanos = warmStartNanos;
+
         matching.clear();
-        free.addAll(graph.getVertices());
-        graphView.setMatchingEdges(matching);
-        graphView.setForest(parent);
-        graphView.repaint();
+        matching.putAll(compact.toMatching(mate));
+        warmStartSize = matching.size() / 2;
+        forestEdges.clear();
+        if (observing) {
+            observer.onStart(matching, forestEdges);
+        }
     }
 
+    // Grows an alternating tree from the free vertex root and augments along the first path found
     private boolean augment(int root) {
-        System.out.println("Starting augmentation from root: " + root);
-        label.clear();
-        parent.clear();
-        base.clear();
-        queue.clear();
-
-        for (int v : graph.getVertices()) {
-            base.put(v, v);
+        forest.clear();
+        forest.addRoot(root);
+        if (observing) {
+            forestEdges.clear();
+            observer.onRootChosen(compact.getId(root));
         }
 
-        label.put(root, 0);
-        queue.offer(root);
-        graphView.setRoot(root);
-
-        while (!queue.isEmpty()) {
-            int v = queue.poll();
-            System.out.println("Processing vertex: " + v);
-            graphView.setCurrentVertex(v);
-            graphView.setForest(parent);
-            graphView.repaint();
-            sleep(500);
-
-            for (int u : graph.getNeighbors(v)) {
-                if (base.get(u).equals(base.get(v))) continue;
-                if (!label.containsKey(base.get(u))) {
-                    if (!matching.containsKey(u)) {
-                        System.out.println("Augmenting path found: " + v + " - " + u);
-                        graphView.setAugmentingPath(constructPath(v, u));
-                        graphView.repaint();
-                        sleep(1000);
-                        if (augmentPath(v, u)) {
-                            return true;
-                        }
-                    }
-                    label.put(u, 1);
-                    parent.put(u, v);
-                    if (matching.containsKey(u)) {
-                        label.put(matching.get(u), 0);
-                        parent.put(matching.get(u), u);
-                        queue.offer(matching.get(u));
+        for (int v = forest.poll(); v != NONE; v = forest.poll()) {
+            if (observing) {
+                observer.onVertexScanned(compact.getId(v), forestEdges);
+            }
+            int first = compact.firstEdge(v), end = compact.endEdge(v);
+            stats.edgesScanned += end - first; // counted per vertex, outside the hot loop
+            for (int e = first; e < end; e++) {
+                int u = compact.target(e);
+                if (mate[v] == u || forest.isOdd(u)) continue;
+                if (!forest.isLabeled(u)) {
+                    if (mate[u] == NONE) {
+                        stats.edgesScanned -= end - e - 1;
+                        augmentPath(v, u);
+                        return true;
                     }
-                    graphView.setForest(parent);
-                    graphView.repaint();
-                    sleep(500);
-                } else if (label.get(base.get(u)) == 0) {
-                    int lca = findLowestCommonAncestor(v, u);
-                    if (lca != -1) {
-                        blossomShrink(v, u, lca);
+                    forest.grow(v, u);
+                    if (observing) {
+                        forestEdges.put(compact.getId(u), compact.getId(v));
+                        forestEdges.put(compact.getId(mate[u]), compact.getId(u));
+                        observer.onTreeEdge(compact.getId(u), compact.getId(v));
+                        observer.onTreeEdge(compact.getId(mate[u]), compact.getId(u));
+                        observer.onTreeGrown(forestEdges);
                     }
+                } else if (forest.baseOf(u) != forest.baseOf(v)) {
+                    blossomShrink(v, u);
                 }
             }
         }
         return false;
     }
 
-    private List<Integer> constructPath(int v, int u) {
-        List<Integer> path = new ArrayList<>();
-        int current = v;
-        while (current != -1) {
-            path.add(current);
-            current = parent.getOrDefault(current, -1);
-        }
-        Collections.reverse(path);
-        path.add(u);
-        return path;
-    }
-
-    private boolean augmentPath(int v, int u) {
-        List<Integer> path = constructPath(v, u);
-        System.out.println("Augmenting path: " + path);
-
-        for (int i = 0; i < path.size() - 1; i += 2) {
-            int x = path.get(i);
-            int y = path.get(i + 1);
-
-            if (matching.containsKey(x)) {
-                free.add(matching.get(x));
-                matching.remove(matching.get(x));
-            }
-            if (matching.containsKey(y)) {
-                free.add(matching.get(y));
-                matching.remove(matching.get(y));
-            }
-
-            matching.put(x, y);
-            matching.put(y, x);
-            free.remove(x);
-            free.remove(y);
-            System.out.println("  Added to matching: " + x + " - " + y);
-        }
-
-        graphView.setAugmentingPath(null);
-        return true;
-    }
-
-    private int findLowestCommonAncestor(int u, int v) {
-        Set<Integer> ancestors = new HashSet<>();
-        while (u != -1) {
-            ancestors.add(base.get(u));
-            u = parent.getOrDefault(u, -1);
-        }
-        while (v != -1) {
-            if (ancestors.contains(base.get(v))) return base.get(v);
-            v = parent.getOrDefault(v, -1);        }
-        return -1;
-    }
-
-    private void blossomShrink(int u, int v, int lca) {
-        System.out.println("Shrinking blossom with LCA: " + lca);
-        currentBlossom.clear();
-        List<Integer> path1 = getPath(u, lca);
-        List<Integer> path2 = getPath(v, lca);
-        currentBlossom.addAll(path1);
-        currentBlossom.addAll(path2);
-
-        graphView.highlightBlossom(new ArrayList<>(currentBlossom));
-        graphView.repaint();
-        sleep(1000);
-
-        while (base.get(u) != lca) {
-            int blosPair = matching.get(u);
-            base.put(u, lca);
-            base.put(blosPair, lca);
-            u = parent.get(blosPair);
-            if (label.get(base.get(u)) == 1) {
-                queue.offer(u);
-            }
+    // Flips the matching along the path from the root to v followed by the free vertex u
+    private void augmentPath(int v, int u) {
+        List<Integer> path = null;
+        if (observing) {
+            path = constructPath(v, u);
+            observer.onAugmentingPath(path);
         }
-        while (base.get(v) != lca) {
-            int blosPair = matching.get(v);
-            base.put(v, lca);
-            base.put(blosPair, lca);
-            v = parent.get(blosPair);
-            if (label.get(base.get(v)) == 1) {
-                queue.offer(v);
+        forest.augment(v, u);
+        if (observing) {
+            for (int id : path) {
+                matching.put(id, compact.getId(mate[compact.indexOf(id)]));
             }
+            observer.onAugmented(path);
         }
-
-        graphView.shrinkBlossom(lca, new ArrayList<>(currentBlossom));
-        graphView.repaint();
-        sleep(1000);
     }
 
-    private List<Integer> getPath(int start, int end) {
-        List<Integer> path = new ArrayList<>();
-        int current = start;
-        while (current != end) {
-            path.add(current);
-            current = parent.get(current);
+    private List<Integer> constructPath(int v, int u) {
+        int length = forest.pathToRoot(v, pathBuffer);
+        List<Integer> path = new ArrayList<>(length + 1);
+        for (int i = length - 1; i >= 0; i--) {
+            path.add(compact.getId(pathBuffer[i]));
         }
-        path.add(end);
+        path.add(compact.getId(u));
         return path;
     }
 
-    private void sleep(int milliseconds) {
-        try {
-            Thread.sleep(milliseconds);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+    private void blossomShrink(int v, int u) {
+        int lca = forest.shrinkBlossom(v, u);
+        if (observing) {
+            List<Integer> blossom = new ArrayList<>(forest.getCycleSize());
+            for (int i = 0; i < forest.getCycleSize(); i++) {
+                blossom.add(compact.getId(forest.getCycleVertex(i)));
+            }
+            observer.onBlossomFound(compact.getId(lca), blossom);
+            observer.onBlossomShrunk(compact.getId(lca), blossom);
         }
     }
-}
\ No newline at end of file
+}
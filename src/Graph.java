@@ -1,53 +1,206 @@
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
+/**
+ * Mutable undirected graph keyed by vertex id.
+ * Every edge is stored once in the adjacency list of each endpoint, and each copy knows the position
+ * of the other, so edges and vertices are removed by swap-removal in time proportional to the degree.
+ * Adjacency lists are therefore unordered.
+ */
 public class Graph {
     private Map<Integer, Vertex> vertices;
     private Map<Integer, List<Edge>> adjacencyList;
+    private LongHashSet edgeKeys;  // edgeKey(u, v) of every edge, for constant-time hasEdge
+    private final List<GraphListener> listeners = new ArrayList<>();
 
     public Graph() {
         vertices = new HashMap<>();
         adjacencyList = new HashMap<>();
+        edgeKeys = new LongHashSet(16);
+    }
+
+    /**
+     * Builds a mutable graph from a snapshot in one pass, without the per-edge checks of {@link #addEdge(int, int)}.
+     * Vertices are laid out on a square grid so that the graph can be shown in the GUI.
+     * @param compact the snapshot to copy
+     * @return the new graph
+     */
+    public static Graph of(CompactGraph compact) {
+        Graph graph = new Graph();
+        int n = compact.getNumVertices();
+        int cols = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        graph.vertices = new HashMap<>(2 * n);
+        graph.adjacencyList = new HashMap<>(2 * n);
+        graph.edgeKeys = new LongHashSet(compact.getNumEdges());
+        // With every adjacency sorted, u meets its neighbors v in increasing order, so the copy of
+        // the edge (u, v) in the list of u is at position seen[u]
+        int[] seen = new int[n];
+        int[] neighbors = new int[0];
+        for (int v = 0; v < n; v++) {
+            int id = compact.getId(v);
+            graph.vertices.put(id, new Vertex(id, 40 + 60 * (v % cols), 40 + 60 * (v / cols)));
+            int degree = compact.degree(v);
+            if (neighbors.length < degree) {
+                neighbors = new int[Math.max(degree, 2 * neighbors.length)];
+            }
+            for (int i = 0; i < degree; i++) {
+                neighbors[i] = compact.target(compact.firstEdge(v) + i);
+            }
+            Arrays.sort(neighbors, 0, degree);
+            List<Edge> edges = new ArrayList<>(degree);
+            int firstLoop = -1;
+            for (int i = 0; i < degree; i++) {
+                int u = neighbors[i];
+                int to = compact.getId(u);
+                Edge edge = new Edge(id, to);
+                edge.reverse = seen[u]++;
+                if (u == v) {
+                    // The two copies of a self-loop sit next to each other and point at one another
+                    firstLoop = firstLoop == -1 ? i : firstLoop;
+                    edge.reverse = (i - firstLoop) % 2 == 0 ? i + 1 : i - 1;
+                }
+                edges.add(edge);
+                if (id <= to) {
+                    graph.edgeKeys.add(edgeKey(id, to));
+                }
+            }
+            graph.adjacencyList.put(id, edges);
+        }
+        return graph;
+    }
+
+    /**
+     * Registers a listener that is told about every later change to this graph.
+     * @param listener the listener to add
+     */
+    public void addGraphListener(GraphListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeGraphListener(GraphListener listener) {
+        listeners.remove(listener);
     }
 
     public void addVertex(Vertex vertex) {
+        if (adjacencyList.containsKey(vertex.getId())) {
+            // The new vertex starts without edges, so the old ones are dropped from the other side too
+            detachEdges(vertex.getId());
+        }
         vertices.put(vertex.getId(), vertex);
         adjacencyList.put(vertex.getId(), new ArrayList<>());
+        for (GraphListener listener : listeners) {
+            listener.onVertexAdded(vertex.getId());
+        }
     }
 
     public void addEdge(int from, int to) {
         if (!vertices.containsKey(from) || !vertices.containsKey(to)) {
             throw new IllegalArgumentException("Both vertices must exist in the graph.");
         }
+        List<Edge> fromEdges = adjacencyList.get(from);
+        List<Edge> toEdges = adjacencyList.get(to);
         Edge edge = new Edge(from, to);
-        adjacencyList.get(from).add(edge);
-        adjacencyList.get(to).add(new Edge(to, from)); // For undirected graph
+        Edge opposite = new Edge(to, from); // For undirected graph
+        opposite.reverse = fromEdges.size();
+        fromEdges.add(edge);
+        edge.reverse = toEdges.size();
+        toEdges.add(opposite);
+        edgeKeys.add(edgeKey(from, to));
+        for (GraphListener listener : listeners) {
+            listener.onEdgeAdded(from, to);
+        }
     }
 
     public void removeEdge(int from, int to) {
-        if (adjacencyList.containsKey(from)) {
-            adjacencyList.get(from).removeIf(e -> e.getTo() == to);
+        List<Edge> edges = adjacencyList.get(from);
+        if (edges == null || !edgeKeys.contains(edgeKey(from, to))) {
+            return;
         }
-        if (adjacencyList.containsKey(to)) {
-            adjacencyList.get(to).removeIf(e -> e.getTo() == from);
+        // Walk backwards so that swap-removal only moves edges that were already checked
+        for (int i = edges.size() - 1; i >= 0; i--) {
+            if (i < edges.size() && edges.get(i).getTo() == to) {
+                removeEdgeAt(from, i);
+            }
+        }
+        edgeKeys.remove(edgeKey(from, to));
+        for (GraphListener listener : listeners) {
+            listener.onEdgeRemoved(from, to);
         }
     }
 
+    // Removes a vertex and its edges in time proportional to its degree
     public void removeVertex(int id) {
         if (!vertices.containsKey(id)) {
             return;
         }
         vertices.remove(id);
+        detachEdges(id);
         adjacencyList.remove(id);
-        for (List<Edge> edges : adjacencyList.values()) {
-            edges.removeIf(e -> e.getTo() == id);
+        for (GraphListener listener : listeners) {
+            listener.onVertexRemoved(id);
         }
     }
 
-    public boolean hasEdge(int from, int to) {
-        if (!adjacencyList.containsKey(from)) {
-            return false;
+    /**
+     * Removes several vertices and their edges, in time proportional to the number of edges removed.
+     * Unknown ids are ignored.
+     * @param ids the ids of the vertices to remove
+     */
+    public void removeVertices(int[] ids) {
+        for (int id : ids) {
+            removeVertex(id);
+        }
+    }
+
+    // Removes the opposite copy of every edge of id, leaving the list of id itself to the caller
+    private void detachEdges(int id) {
+        for (Edge edge : adjacencyList.get(id)) {
+            edgeKeys.remove(edgeKey(id, edge.getTo()));
+            if (edge.getTo() != id) {
+                swapRemove(adjacencyList.get(edge.getTo()), edge.reverse);
+            }
+        }
+    }
+
+    // Removes the edge at position i of the list of from together with its opposite copy
+    private void removeEdgeAt(int from, int i) {
+        List<Edge> edges = adjacencyList.get(from);
+        Edge edge = edges.get(i);
+        int to = edge.getTo();
+        if (to == from) {
+            // Both copies are in the same list; removing the later one first keeps the other in place
+            int j = edge.reverse;
+            swapRemove(edges, Math.max(i, j));
+            swapRemove(edges, Math.min(i, j));
+        } else {
+            swapRemove(adjacencyList.get(to), edge.reverse);
+            swapRemove(edges, i);
+        }
+    }
+
+    // Moves the last edge of the list into position i and repoints the opposite copy of the moved edge
+    private void swapRemove(List<Edge> edges, int i) {
+        Edge last = edges.remove(edges.size() - 1);
+        if (i < edges.size()) {
+            edges.set(i, last);
+            adjacencyList.get(last.getTo()).get(last.reverse).reverse = i;
         }
-        return adjacencyList.get(from).stream().anyMatch(e -> e.getTo() == to);
+    }
+
+    // Constant time lookup in the edge key set
+    public boolean hasEdge(int from, int to) {
+        return edgeKeys.contains(edgeKey(from, to));
+    }
+
+    // Calls action with the packed key of every edge, as produced by edgeKey
+    void forEachEdgeKey(LongConsumer action) {
+        edgeKeys.forEach(action);
+    }
+
+    // Packs an undirected edge into one long, smaller id in the high half
+    private static long edgeKey(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | (Math.max(u, v) & 0xFFFFFFFFL);
     }
 
     public Set<Integer> getVertices() {
@@ -65,7 +218,108 @@ public class Graph {
         return adjacencyList.get(id).stream().map(Edge::getTo).collect(java.util.stream.Collectors.toList());
     }
 
+    /**
+     * Number of neighbors of a vertex, counting repeated edges.
+     * @param id the vertex id
+     * @return the degree, or 0 for an unknown vertex
+     */
+    public int degree(int id) {
+        List<Edge> edges = adjacencyList.get(id);
+        return edges == null ? 0 : edges.size();
+    }
+
+    /**
+     * Creates a reusable cursor over the neighbors of this graph's vertices.
+     * Keep one cursor per loop and {@link NeighborCursor#reset(int) reset} it for every vertex,
+     * so walking adjacencies allocates nothing.
+     * @return a new cursor, positioned on no vertex
+     */
+    public NeighborCursor neighborCursor() {
+        return new NeighborCursor();
+    }
+
+    /**
+     * Calls the action with the id of every neighbor of a vertex, without boxing or building a list.
+     * @param id the vertex id
+     * @param action the action to run for each neighbor
+     */
+    public void forEachNeighbor(int id, IntConsumer action) {
+        List<Edge> edges = adjacencyList.get(id);
+        if (edges == null) {
+            return;
+        }
+        for (int i = 0, size = edges.size(); i < size; i++) {
+            action.accept(edges.get(i).getTo());
+        }
+    }
+
+    /**
+     * Walks the neighbors of one vertex at a time, in the same order as {@link #getNeighbors(int)}.
+     * The graph must not be modified while a walk is in progress.
+     */
+    public final class NeighborCursor {
+        private List<Edge> edges = Collections.emptyList();
+        private int position;
+
+        private NeighborCursor() {
+        }
+
+        /**
+         * Moves the cursor to the start of the neighbors of a vertex.
+         * @param id the vertex id; an unknown vertex has no neighbors
+         * @return this cursor
+         */
+        public NeighborCursor reset(int id) {
+            List<Edge> list = adjacencyList.get(id);
+            edges = list == null ? Collections.emptyList() : list;
+            position = 0;
+            return this;
+        }
+
+        public boolean hasNext() {
+            return position < edges.size();
+        }
+
+        // Id of the next neighbor
+        public int next() {
+            return edges.get(position++).getTo();
+        }
+    }
+
     public int getNumVertices() {
         return vertices.size();
     }
+
+    // Number of distinct undirected edges, counting a self-loop once
+    public int getNumEdges() {
+        return edgeKeys.size();
+    }
+
+    /**
+     * Takes an immutable compressed sparse row snapshot of the current graph.
+     * Later changes to this graph are not reflected in the snapshot.
+     * @return the snapshot, with vertex ids remapped to dense indices in ascending id order
+     */
+    public CompactGraph freeze() {
+        int n = vertices.size();
+        int[] ids = new int[n];
+        int i = 0;
+        for (int id : vertices.keySet()) {
+            ids[i++] = id;
+        }
+        Arrays.sort(ids);
+
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + adjacencyList.get(ids[v]).size();
+        }
+        int[] targets = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            int position = offsets[v];
+            for (Edge edge : adjacencyList.get(ids[v])) {
+                targets[position++] = Arrays.binarySearch(ids, edge.getTo());
+            }
+        }
+        return new ArrayCompactGraph(ids, offsets, targets);
+    }
 }
\ No newline at end of file
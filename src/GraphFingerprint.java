@@ -0,0 +1,94 @@
+import java.util.function.LongConsumer;
+
+/**
+ * 128-bit fingerprint of the edge set of a graph, used as the key of {@link MatchingCache}.
+ * Every edge is packed into one long as (smaller id, larger id), mixed by two independent 64-bit
+ * finalizers, and the mixed values are summed. Addition is commutative, so the fingerprint does not
+ * depend on the order in which edges were added or are stored, and it takes a single pass over the edges.
+ * A {@link Graph} and a {@link CompactGraph} with the same edges have the same fingerprint.
+ * Isolated vertices and self-loops are ignored, since they cannot change a matching.
+ */
+final class GraphFingerprint {
+    private final long low;
+    private final long high;
+    private final int edges;
+
+    private GraphFingerprint(long low, long high, int edges) {
+        this.low = low;
+        this.high = high;
+        this.edges = edges;
+    }
+
+    static GraphFingerprint of(Graph graph) {
+        Accumulator sum = new Accumulator();
+        graph.forEachEdgeKey(key -> {
+            if ((int) (key >>> 32) != (int) key) {
+                sum.accept(key);
+            }
+        });
+        return sum.toFingerprint();
+    }
+
+    static GraphFingerprint of(CompactGraph graph) {
+        Accumulator sum = new Accumulator();
+        int n = graph.getNumVertices();
+        int[] seen = new int[n]; // v + 1 once u was met in the adjacency of v; Graph.freeze keeps parallel edges
+        for (int v = 0; v < n; v++) {
+            long id = (long) graph.getId(v) << 32;
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                int u = graph.target(e);
+                // Ids ascend with the index, so u > v puts the smaller id in the high half like Graph does
+                if (u > v && seen[u] != v + 1) {
+                    seen[u] = v + 1;
+                    sum.accept(id | (graph.getId(u) & 0xFFFFFFFFL));
+                }
+            }
+        }
+        return sum.toFingerprint();
+    }
+
+    int getNumEdges() {
+        return edges;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GraphFingerprint)) return false;
+        GraphFingerprint other = (GraphFingerprint) o;
+        return low == other.low && high == other.high && edges == other.edges;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x/%d", high, low, edges);
+    }
+
+    private static final class Accumulator implements LongConsumer {
+        long low, high;
+        int edges;
+
+        @Override
+        public void accept(long key) {
+            low += mix(key * 0x9E3779B97F4A7C15L, 0xBF58476D1CE4E5B9L, 0x94D049BB133111EBL);
+            high += mix(key ^ 0xD6E8FEB86659FD93L, 0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L);
+            edges++;
+        }
+
+        GraphFingerprint toFingerprint() {
+            return new GraphFingerprint(low, high, edges);
+        }
+
+        // 64-bit finalizer in the style of SplitMix64 and MurmurHash3's fmix64
+        private static long mix(long z, long m1, long m2) {
+            z = (z ^ (z >>> 33)) * m1;
+            z = (z ^ (z >>> 29)) * m2;
+            return z ^ (z >>> 32);
+        }
+    }
+}
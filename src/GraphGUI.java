@@ -1,14 +1,18 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
 
 public class GraphGUI extends JFrame {
     private Graph graph;
+    private DynamicMatching liveMatching; // repaired after every edit, so its size is always current
     private GraphView graphView;
+    private ReplayControls replayControls;
     private JButton addVertexButton, addEdgeButton, removeVertexButton, removeEdgeButton;
-    private JButton setGraphButton, findMatchingButton, clearBoardButton;
+    private JButton setGraphButton, findMatchingButton, clearBoardButton, loadGraphButton;
     private JLabel statusLabel;
     private boolean addingEdge = false;
     private boolean removingVertex = false;
@@ -18,6 +22,7 @@ public class GraphGUI extends JFrame {
 
     public GraphGUI() {
         graph = new Graph();
+        liveMatching = new DynamicMatching(graph);
         setTitle("Interactive Graph Matching - Edmonds' Blossom Algorithm");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(800, 600);
@@ -31,7 +36,7 @@ public class GraphGUI extends JFrame {
         add(graphView, BorderLayout.CENTER);
 
         statusLabel = new JLabel("Ready to add vertices or edges.");
-        add(statusLabel, BorderLayout.SOUTH);
+        replayControls = new ReplayControls(graphView);
 
         JPanel topButtonPanel = new JPanel();
         addVertexButton = new JButton("Add Vertex");
@@ -49,11 +54,18 @@ public class GraphGUI extends JFrame {
         setGraphButton = new JButton("Set Graph");
         findMatchingButton = new JButton("Find Max Matching");
         clearBoardButton = new JButton("Clear Board");
+        loadGraphButton = new JButton("Load Graph");
 
         bottomButtonPanel.add(setGraphButton);
         bottomButtonPanel.add(findMatchingButton);
         bottomButtonPanel.add(clearBoardButton);
-        add(bottomButtonPanel, BorderLayout.SOUTH);
+        bottomButtonPanel.add(loadGraphButton);
+
+        JPanel southPanel = new JPanel(new GridLayout(0, 1));
+        southPanel.add(replayControls);
+        southPanel.add(bottomButtonPanel);
+        southPanel.add(statusLabel);
+        add(southPanel, BorderLayout.SOUTH);
 
         addVertexButton.addActionListener(e -> {
             addingEdge = false;
@@ -82,6 +94,7 @@ public class GraphGUI extends JFrame {
         setGraphButton.addActionListener(e -> setGraph());
         findMatchingButton.addActionListener(e -> findMatching());
         clearBoardButton.addActionListener(e -> clearBoard());
+        loadGraphButton.addActionListener(e -> loadGraph());
 
         findMatchingButton.setEnabled(false);
 
@@ -103,9 +116,9 @@ public class GraphGUI extends JFrame {
 
     private void addVertex(Point point) {
         vertexCount++;
-        Vertex newVertex = new Vertex(vertexCount, point);
+        Vertex newVertex = new Vertex(vertexCount, graphView.toWorld(point));
         graph.addVertex(newVertex);
-        updateStatusLabel("Vertex " + vertexCount + " added at " + point);
+        updateStatusLabel("Vertex " + vertexCount + " added at " + newVertex.getPosition() + "." + liveMatchingSize());
         graphView.repaint();
     }
 
@@ -123,7 +136,7 @@ public class GraphGUI extends JFrame {
             if (vertex != edgeStart && !graph.hasEdge(edgeStart, vertex)) {
                 graph.addEdge(edgeStart, vertex);
                 graphView.clearPickedVertex(edgeStart);
-                updateStatusLabel("Edge added between " + edgeStart + " and " + vertex);
+                updateStatusLabel("Edge added between " + edgeStart + " and " + vertex + "." + liveMatchingSize());
                 edgeStart = null;
                 graphView.repaint();
             } else {
@@ -138,7 +151,7 @@ public class GraphGUI extends JFrame {
         int vertex = graphView.findVertexAt(point);
         if (vertex != -1) {
             graph.removeVertex(vertex);
-            updateStatusLabel("Vertex " + vertex + " removed.");
+            updateStatusLabel("Vertex " + vertex + " removed." + liveMatchingSize());
             graphView.repaint();
         } else {
             updateStatusLabel("No vertex at this position to remove.");
@@ -159,7 +172,7 @@ public class GraphGUI extends JFrame {
             if (vertex != edgeStart && graph.hasEdge(edgeStart, vertex)) {
                 graph.removeEdge(edgeStart, vertex);
                 graphView.clearPickedVertex(edgeStart);
-                updateStatusLabel("Edge removed between " + edgeStart + " and " + vertex);
+                updateStatusLabel("Edge removed between " + edgeStart + " and " + vertex + "." + liveMatchingSize());
                 edgeStart = null;
                 graphView.repaint();
             } else {
@@ -179,12 +192,14 @@ public class GraphGUI extends JFrame {
 
     private void findMatching() {
         new Thread(() -> {
-            System.out.println("Finding maximum matching...");
-            EdmondsBlossomAlgorithm eba = new EdmondsBlossomAlgorithm(graph, graphView);
-            System.out.println("v ");
+            updateStatusLabel("Finding maximum matching...");
+            // The search runs at full speed into the log; the animation is replayed from it afterwards
+            MatchingEventLog log = new MatchingEventLog();
+            EdmondsBlossomAlgorithm eba = new EdmondsBlossomAlgorithm(graph, log);
             Map<Integer, Integer> matching = eba.findMaximumMatching();
             int maxMatching = matching.size() / 2; // Divide by 2 because each edge is counted twice
-            updateStatusLabel("Maximum Matching: " + maxMatching);
+            updateStatusLabel("Maximum Matching: " + maxMatching + " (" + log.size() + " steps recorded)");
+            SwingUtilities.invokeLater(() -> replayControls.setRecording(log));
 
             StringBuilder resultMessage = new StringBuilder("Matching Pairs:\n");
             for (Map.Entry<Integer, Integer> entry : matching.entrySet()) {
@@ -193,13 +208,47 @@ public class GraphGUI extends JFrame {
                 }
             }
             resultMessage.append("\nMaximum Matching: ").append(maxMatching);
-            JOptionPane.showMessageDialog(this, resultMessage.toString(), "Matching Result", JOptionPane.INFORMATION_MESSAGE);
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, resultMessage.toString(),
+                    "Matching Result", JOptionPane.INFORMATION_MESSAGE));
         }).start();
     }
 
 
+    private void loadGraph() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        updateStatusLabel("Loading " + file.getName() + "...");
+        new Thread(() -> {
+            try {
+                CompactGraph compact = GraphLoader.load(file.toPath());
+                Graph loaded = Graph.of(compact);
+                DynamicMatching matching = new DynamicMatching(loaded);
+                SwingUtilities.invokeLater(() -> {
+                    graph = loaded;
+                    liveMatching = matching;
+                    replayControls.setRecording(null);
+                    graphView.setGraph(graph);
+                    graphView.fitToView();
+                    int n = compact.getNumVertices();
+                    vertexCount = n == 0 ? 0 : Math.max(0, compact.getId(n - 1));
+                    edgeStart = null;
+                    enableTopButtons();
+                    findMatchingButton.setEnabled(false);
+                    updateStatusLabel("Loaded " + n + " vertices and " + compact.getNumEdges() + " edges from " + file.getName() + ".");
+                });
+            } catch (IOException ex) {
+                updateStatusLabel("Could not load " + file.getName() + ": " + ex.getMessage());
+            }
+        }).start();
+    }
+
     private void clearBoard() {
         graph = new Graph();
+        liveMatching = new DynamicMatching(graph);
+        replayControls.setRecording(null);
         graphView.setGraph(graph);
         vertexCount = 0;
         edgeStart = null;
@@ -209,26 +258,31 @@ public class GraphGUI extends JFrame {
         graphView.repaint();
     }
 
+    // Prints the adjacency matrix row by row as the sorted columns of its nonzero entries, in O(V + E)
     private void printAdjacencyMatrix() {
-        Set<Integer> vertexIds = graph.getVertices();
-        List<Integer> vertexList = new ArrayList<>(vertexIds);
-        int size = vertexList.size();
-        int[][] adjacencyMatrix = new int[size][size];
-
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                if (graph.hasEdge(vertexList.get(i), vertexList.get(j))) {
-                    adjacencyMatrix[i][j] = 1;
-                } else {
-                    adjacencyMatrix[i][j] = 0;
-                }
-            }
+        List<Integer> vertexList = new ArrayList<>(graph.getVertices());
+        Collections.sort(vertexList);
+        Map<Integer, Integer> column = new HashMap<>(2 * vertexList.size());
+        for (int i = 0; i < vertexList.size(); i++) {
+            column.put(vertexList.get(i), i);
         }
 
-        System.out.println("Adjacency Matrix:");
-        for (int[] row : adjacencyMatrix) {
-            System.out.println(Arrays.toString(row));
+        StringBuilder out = new StringBuilder("Adjacency Matrix (" + vertexList.size() + " x " + vertexList.size()
+                + ", nonzero columns of each row):\n");
+        Graph.NeighborCursor neighbors = graph.neighborCursor();
+        BitSet row = new BitSet(vertexList.size());
+        for (int i = 0; i < vertexList.size(); i++) {
+            row.clear();
+            for (neighbors.reset(vertexList.get(i)); neighbors.hasNext(); ) {
+                row.set(column.get(neighbors.next()));
+            }
+            out.append(vertexList.get(i)).append(": ").append(row).append('\n');
         }
+        System.out.print(out);
+    }
+
+    private String liveMatchingSize() {
+        return " Matching size: " + liveMatching.size();
     }
 
     private void disableTopButtons() {
@@ -0,0 +1,257 @@
+import java.util.*;
+
+/**
+ * Seeded generators of reproducible test graphs.
+ * Every generator returns a flat edge list {u0, v0, u1, v1, ...} over vertex ids 0..n-1, without
+ * self-loops or parallel edges, so the same input can be fed to {@link #toGraph(int, int[])} or to a bulk loader.
+ */
+public final class GraphGenerators {
+    private GraphGenerators() {
+    }
+
+    /**
+     * Erdos-Renyi G(n, m): m distinct edges chosen uniformly at random.
+     * @param n the number of vertices
+     * @param m the number of edges, at most n(n-1)/2
+     * @param seed the random seed
+     * @throws IllegalArgumentException if m is negative or larger than n(n-1)/2
+     */
+    public static int[] erdosRenyi(int n, int m, long seed) {
+        long pairs = (long) n * (n - 1) / 2;
+        if (m < 0 || m > pairs) {
+            throw new IllegalArgumentException("Cannot place " + m + " edges on " + n + " vertices.");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        if (m > pairs / 2) {
+            // Near the complete graph most draws would repeat an edge, so draw the edges to leave out instead
+            LongHashSet missing = new LongHashSet((int) (pairs - m));
+            while (missing.size() < pairs - m) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                if (u != v) {
+                    missing.add(EdgeSet.key(u, v));
+                }
+            }
+            int[] edges = new int[2 * m];
+            int i = 0;
+            for (int u = 0; u < n; u++) {
+                for (int v = u + 1; v < n; v++) {
+                    if (!missing.contains(EdgeSet.key(u, v))) {
+                        edges[i++] = u;
+                        edges[i++] = v;
+                    }
+                }
+            }
+            shuffleEdges(edges, random);
+            return edges;
+        }
+        EdgeSet edges = new EdgeSet(m);
+        while (edges.size() < m) {
+            edges.add(random.nextInt(n), random.nextInt(n));
+        }
+        return edges.toArray();
+    }
+
+    /**
+     * Random d-regular graph by the configuration model. Pairings that would create a self-loop
+     * or a parallel edge are dropped, so a few vertices may end up with degree slightly below d.
+     * @param n the number of vertices
+     * @param d the degree, with n * d even
+     * @param seed the random seed
+     */
+    public static int[] randomRegular(int n, int d, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] stubs = new int[n * d];
+        for (int i = 0; i < stubs.length; i++) {
+            stubs[i] = i / d;
+        }
+        shuffle(stubs, random);
+        EdgeSet edges = new EdgeSet(stubs.length / 2);
+        for (int i = 0; i + 1 < stubs.length; i += 2) {
+            edges.add(stubs[i], stubs[i + 1]);
+        }
+        return edges.toArray();
+    }
+
+    /**
+     * Rectangular grid; vertex r * cols + c is joined to its right and lower neighbors.
+     * @param rows the number of rows
+     * @param cols the number of columns
+     */
+    public static int[] grid(int rows, int cols) {
+        int m = rows * (cols - 1) + (rows - 1) * cols;
+        int[] edges = new int[2 * m];
+        int i = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = r * cols + c;
+                if (c + 1 < cols) {
+                    edges[i++] = v;
+                    edges[i++] = v + 1;
+                }
+                if (r + 1 < rows) {
+                    edges[i++] = v;
+                    edges[i++] = v + cols;
+                }
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Random bipartite graph between vertices 0..left-1 and left..left+right-1.
+     * @param left the size of the left side
+     * @param right the size of the right side
+     * @param m the number of edges, at most left * right
+     * @param seed the random seed
+     * @throws IllegalArgumentException if m is negative or larger than left * right
+     */
+    public static int[] bipartite(int left, int right, int m, long seed) {
+        long pairs = (long) left * right;
+        if (m < 0 || m > pairs) {
+            throw new IllegalArgumentException("Cannot place " + m + " edges between " + left + " and " + right + " vertices.");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        if (m > pairs / 2) {
+            LongHashSet missing = new LongHashSet((int) (pairs - m));
+            while (missing.size() < pairs - m) {
+                missing.add(EdgeSet.key(random.nextInt(left), left + random.nextInt(right)));
+            }
+            int[] edges = new int[2 * m];
+            int i = 0;
+            for (int u = 0; u < left; u++) {
+                for (int v = left; v < left + right; v++) {
+                    if (!missing.contains(EdgeSet.key(u, v))) {
+                        edges[i++] = u;
+                        edges[i++] = v;
+                    }
+                }
+            }
+            shuffleEdges(edges, random);
+            return edges;
+        }
+        EdgeSet edges = new EdgeSet(m);
+        while (edges.size() < m) {
+            edges.add(random.nextInt(left), left + random.nextInt(right));
+        }
+        return edges.toArray();
+    }
+
+    /**
+     * Blossom-heavy graph: a chain of odd cycles, each joined to the previous one by two edges from random
+     * vertices of the previous cycle, one to its first vertex and one to another of its vertices. Once the
+     * previous cycle is shrunk into a blossom, those two edges and the odd arc of the cycle between their ends
+     * close an odd cycle through it, so blossoms can nest down the chain and augmenting paths go through many of them.
+     * @param cycles the number of odd cycles
+     * @param cycleLength the (odd) length of each cycle, at least 3
+     * @param seed the random seed choosing the attachment points
+     * @return the edge list over cycles * cycleLength vertices
+     */
+    public static int[] nestedOddCycles(int cycles, int cycleLength, long seed) {
+        if (cycleLength < 3 || cycleLength % 2 == 0) {
+            throw new IllegalArgumentException("Cycle length must be odd and at least 3.");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeSet edges = new EdgeSet(cycles * (cycleLength + 3));
+        for (int c = 0; c < cycles; c++) {
+            int first = c * cycleLength;
+            for (int i = 0; i < cycleLength; i++) {
+                edges.add(first + i, first + (i + 1) % cycleLength);
+            }
+            if (c > 0) {
+                int previous = first - cycleLength;
+                edges.add(previous + random.nextInt(cycleLength), first);
+                edges.add(previous + random.nextInt(cycleLength), first + 1 + random.nextInt(cycleLength - 1));
+            }
+        }
+        return edges.toArray();
+    }
+
+    /**
+     * Builds a {@link Graph} with vertices 0..n-1 laid out on a square grid of positions.
+     * @param n the number of vertices
+     * @param edges the flat edge list
+     */
+    public static Graph toGraph(int n, int[] edges) {
+        Graph graph = new Graph();
+        int cols = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        for (int v = 0; v < n; v++) {
+            graph.addVertex(new Vertex(v, 40 + 60 * (v % cols), 40 + 60 * (v / cols)));
+        }
+        for (int i = 0; i + 1 < edges.length; i += 2) {
+            graph.addEdge(edges[i], edges[i + 1]);
+        }
+        return graph;
+    }
+
+    /**
+     * Number of vertices an edge list refers to, i.e. one more than its largest id. A generator may leave
+     * its highest ids isolated, and those are not seen here, so pass the n given to the generator to
+     * {@link #toGraph(int, int[])} when it is known.
+     * @param edges the flat edge list
+     * @return the largest id plus one, or 0 for an empty list
+     */
+    public static int vertexCount(int[] edges) {
+        int max = -1;
+        for (int v : edges) {
+            max = Math.max(max, v);
+        }
+        return max + 1;
+    }
+
+    private static void shuffle(int[] values, SplittableRandom random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+
+    // Shuffles the edges of a flat edge list as pairs
+    private static void shuffleEdges(int[] edges, SplittableRandom random) {
+        for (int i = edges.length / 2 - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            for (int k = 0; k < 2; k++) {
+                int swap = edges[2 * i + k];
+                edges[2 * i + k] = edges[2 * j + k];
+                edges[2 * j + k] = swap;
+            }
+        }
+    }
+
+    // Edge list that silently drops self-loops and duplicates
+    private static final class EdgeSet {
+        private final LongHashSet seen;
+        private int[] edges;
+        private int size;
+
+        EdgeSet(int expected) {
+            this.seen = new LongHashSet(expected);
+            this.edges = new int[2 * Math.max(expected, 1)];
+        }
+
+        static long key(int u, int v) {
+            return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+        }
+
+        void add(int u, int v) {
+            if (u == v) return;
+            if (!seen.add(key(u, v))) return;
+            if (2 * size + 1 >= edges.length) {
+                edges = Arrays.copyOf(edges, 2 * edges.length);
+            }
+            edges[2 * size] = u;
+            edges[2 * size + 1] = v;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(edges, 2 * size);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * Receives the structural changes of a {@link Graph} right after they are applied.
+ * Every callback is a no-op by default, so a listener only overrides the changes it cares about.
+ */
+public interface GraphListener {
+    // Called after a vertex has been added
+    default void onVertexAdded(int id) {}
+
+    // Called after a vertex and all its edges have been removed
+    default void onVertexRemoved(int id) {}
+
+    // Called after an undirected edge has been added
+    default void onEdgeAdded(int from, int to) {}
+
+    // Called after an existing undirected edge has been removed
+    default void onEdgeRemoved(int from, int to) {}
+}
@@ -0,0 +1,577 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streaming loader for large graphs stored in common text formats.
+ * Files are read through a {@link FileChannel} into a reusable byte buffer and numbers are parsed
+ * straight from the bytes, so no String is created per line. Edges are collected into primitive
+ * arrays and turned into a {@link CompactGraph} in one bulk pass.
+ */
+public final class GraphLoader {
+    /**
+     * Supported input formats.
+     */
+    public enum Format {
+        // One "u v [weight]" pair per line; ids are kept as written. Lines starting with # or % are comments
+        EDGE_LIST,
+        // DIMACS: "c" comments, a "p edge n m" header and "e u v" lines with 1-based ids
+        DIMACS,
+        // METIS: an "n m [fmt [ncon]]" header, then line i lists the 1-based neighbors of vertex i
+        METIS,
+        // Matrix Market coordinate format; entry (i, j) is an edge between vertices i and j
+        MATRIX_MARKET;
+
+        /**
+         * Guesses the format from a file extension: .dimacs/.col, .graph/.metis, .mtx, anything else is an edge list.
+         * @param path the file to load
+         */
+        public static Format fromFileName(Path path) {
+            String name = path.getFileName().toString().toLowerCase();
+            if (name.endsWith(".dimacs") || name.endsWith(".col")) return DIMACS;
+            if (name.endsWith(".graph") || name.endsWith(".metis")) return METIS;
+            if (name.endsWith(".mtx")) return MATRIX_MARKET;
+            return EDGE_LIST;
+        }
+    }
+
+    private GraphLoader() {
+    }
+
+    /**
+     * Loads a graph, choosing the format from the file extension.
+     * @param path the file to load
+     * @return the graph as an immutable snapshot
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static CompactGraph load(Path path) throws IOException {
+        return load(path, Format.fromFileName(path));
+    }
+
+    /**
+     * Loads a graph in the given format.
+     * @param path the file to load
+     * @param format the format of the file
+     * @return the graph as an immutable snapshot
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static CompactGraph load(Path path, Format format) throws IOException {
+        EdgeBuffer edges = new EdgeBuffer();
+        read(path, format, edges);
+        if (edges.n < 0) {
+            return fromIds(edges);
+        }
+        return CompactGraph.fromEdges(oneBasedIds(edges.n), edges.endpoints, edges.size);
+    }
+
+    /**
+     * Loads a graph into direct memory outside the Java heap, choosing the format from the file extension.
+     * @param path the file to load
+     * @return the graph as an immutable snapshot
+     * @throws IOException if the file cannot be read or is malformed
+     * @see #loadOffHeap(Path, Format)
+     */
+    public static CompactGraph loadOffHeap(Path path) throws IOException {
+        return loadOffHeap(path, Format.fromFileName(path));
+    }
+
+    /**
+     * Loads a graph into direct memory outside the Java heap, for graphs too large for it.
+     * The file is parsed twice: the first pass counts the degrees, the second writes every edge
+     * straight to its place in the adjacency, so no edge list is ever buffered. The snapshot takes
+     * about 4 bytes per vertex and 8 bytes per edge of direct memory, which -XX:MaxDirectMemorySize
+     * must allow for. Edge lists also keep a map from vertex id to index on the heap while loading.
+     * @param path the file to load
+     * @param format the format of the file
+     * @return the graph as an immutable snapshot
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static CompactGraph loadOffHeap(Path path, Format format) throws IOException {
+        OffHeapBuilder builder = new OffHeapBuilder();
+        read(path, format, builder);
+        builder.allocate();
+        read(path, format, builder);
+        return builder.build();
+    }
+
+    /**
+     * Streams the edges of a file without building a graph, in the order they appear.
+     * Dense formats report the 1-based ids of their vertices, like {@link #load(Path, Format)}.
+     * Self-loops and repeated edges are passed on as they are.
+     * @param path the file to read
+     * @param format the format of the file
+     * @param action receives the two vertex ids of every edge
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static void forEachEdge(Path path, Format format, EdgeConsumer action) throws IOException {
+        read(path, format, new EdgeSink() {
+            private int base;  // 1 once a header said the values are dense indices
+
+            @Override
+            public void begin(int n, int expectedEdges) {
+                base = 1;
+            }
+
+            @Override
+            public void add(int u, int v) {
+                action.accept(u + base, v + base);
+            }
+        });
+    }
+
+    private static void read(Path path, Format format, EdgeSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Tokenizer in = new Tokenizer(channel);
+            switch (format) {
+                case DIMACS:
+                    readDimacs(in, sink);
+                    break;
+                case METIS:
+                    readMetis(in, sink);
+                    break;
+                case MATRIX_MARKET:
+                    readMatrixMarket(in, sink);
+                    break;
+                default:
+                    readEdgeList(in, sink);
+            }
+        }
+    }
+
+    private static void readEdgeList(Tokenizer in, EdgeSink sink) throws IOException {
+        while (in.nextLine()) {
+            if (in.startsWith('#') || in.startsWith('%')) {
+                in.skipLine();
+                continue;
+            }
+            int u = in.nextInt();
+            int v = in.nextInt();
+            sink.add(u, v);
+            in.skipLine();
+        }
+    }
+
+    // Remaps the arbitrary ids of an edge list to dense indices in ascending id order
+    private static CompactGraph fromIds(EdgeBuffer edges) {
+        int count = 2 * edges.size;
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, edges.endpoints[i]);
+            max = Math.max(max, edges.endpoints[i]);
+        }
+        long range = count == 0 ? 0 : (long) max - min + 1;
+        int[] ids = range <= Math.max(count, 1 << 20) ? remapByTable(edges, min, (int) range) : remapBySorting(edges);
+        return CompactGraph.fromEdges(ids, edges.endpoints, edges.size);
+    }
+
+    // Remaps ids from a small range with a direct lookup table; returns the sorted distinct ids
+    private static int[] remapByTable(EdgeBuffer edges, int min, int range) {
+        int[] index = new int[range];
+        for (int i = 0; i < 2 * edges.size; i++) {
+            index[edges.endpoints[i] - min] = 1;
+        }
+        int n = 0;
+        for (int offset = 0; offset < range; offset++) {
+            if (index[offset] != 0) {
+                index[offset] = n++;
+            } else {
+                index[offset] = -1;
+            }
+        }
+        int[] ids = new int[n];
+        for (int offset = 0; offset < range; offset++) {
+            if (index[offset] != -1) {
+                ids[index[offset]] = min + offset;
+            }
+        }
+        for (int i = 0; i < 2 * edges.size; i++) {
+            edges.endpoints[i] = index[edges.endpoints[i] - min];
+        }
+        return ids;
+    }
+
+    // Remaps arbitrary sparse ids by sorting and binary search; returns the sorted distinct ids
+    private static int[] remapBySorting(EdgeBuffer edges) {
+        int[] ids = Arrays.copyOf(edges.endpoints, 2 * edges.size);
+        Arrays.sort(ids);
+        int n = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[n++] = ids[i];
+            }
+        }
+        ids = Arrays.copyOf(ids, n);
+        for (int i = 0; i < 2 * edges.size; i++) {
+            edges.endpoints[i] = Arrays.binarySearch(ids, edges.endpoints[i]);
+        }
+        return ids;
+    }
+
+    private static void readDimacs(Tokenizer in, EdgeSink sink) throws IOException {
+        boolean header = false;
+        int n = 0;
+        while (in.nextLine()) {
+            if (in.startsWith('p')) {
+                in.skipToken();  // p
+                in.skipToken();  // problem type, usually "edge" or "col"
+                n = in.nextInt();
+                sink.begin(n, in.nextInt());
+                header = true;
+            } else if (in.startsWith('e') || in.startsWith('a')) {
+                if (!header) {
+                    throw in.error("Edge before the problem line");
+                }
+                in.skipToken();
+                sink.add(in.nextIndex(n), in.nextIndex(n));
+            }
+            in.skipLine();
+        }
+        if (!header) {
+            throw in.error("Missing problem line");
+        }
+    }
+
+    private static void readMetis(Tokenizer in, EdgeSink sink) throws IOException {
+        skipComments(in, '%');
+        int n = in.nextInt();
+        sink.begin(n, in.nextInt());
+        int fmt = in.atLineEnd() ? 0 : in.nextInt();
+        int constraints = in.atLineEnd() ? 1 : in.nextInt();
+        boolean vertexSizes = fmt / 100 % 10 == 1;
+        boolean vertexWeights = fmt / 10 % 10 == 1;
+        boolean edgeWeights = fmt % 10 == 1;
+        in.skipLine();
+
+        for (int v = 0; v < n; v++) {
+            // Blank lines are vertices without neighbors, so only comment lines are skipped here
+            while (in.startsWith('%')) {
+                in.skipLine();
+            }
+            if (vertexSizes) in.skipToken();
+            if (vertexWeights) {
+                for (int c = 0; c < constraints; c++) in.skipToken();
+            }
+            while (!in.atLineEnd()) {
+                int u = in.nextIndex(n);
+                if (edgeWeights) in.skipToken();
+                if (v < u) {
+                    sink.add(v, u);
+                }
+            }
+            in.skipLine();
+        }
+    }
+
+    private static void readMatrixMarket(Tokenizer in, EdgeSink sink) throws IOException {
+        skipComments(in, '%');
+        int rows = in.nextInt();
+        int cols = in.nextInt();
+        int n = Math.max(rows, cols);
+        sink.begin(n, in.nextInt());
+        in.skipLine();
+        while (in.nextLine()) {
+            if (in.startsWith('%')) {
+                in.skipLine();
+                continue;
+            }
+            sink.add(in.nextIndex(n), in.nextIndex(n));
+            in.skipLine();
+        }
+    }
+
+    // Skips comment and blank lines up to the next line with content
+    private static void skipComments(Tokenizer in, char comment) throws IOException {
+        while (in.nextLine() && in.startsWith(comment)) {
+            in.skipLine();
+        }
+        if (!in.hasMore()) {
+            throw in.error("Unexpected end of file");
+        }
+    }
+
+    private static int[] oneBasedIds(int n) {
+        int[] ids = new int[n];
+        for (int v = 0; v < n; v++) {
+            ids[v] = v + 1;
+        }
+        return ids;
+    }
+
+    // Receives what a reader parses
+    private interface EdgeSink {
+        // Called by the formats with a header before their first edge; their vertices are the indices 0 .. n - 1
+        void begin(int n, int expectedEdges);
+
+        // An edge between two indices, or between two vertex ids for edge lists
+        void add(int u, int v);
+    }
+
+    // Growable flat edge list on the heap
+    private static final class EdgeBuffer implements EdgeSink {
+        private int[] endpoints = new int[2 * 1024];
+        private int size;
+        private int n = -1;  // number of vertices from the header, or -1 while the edges hold raw ids
+
+        @Override
+        public void begin(int n, int expectedEdges) {
+            this.n = n;
+            if (2L * expectedEdges > endpoints.length) {
+                endpoints = Arrays.copyOf(endpoints, 2 * expectedEdges);
+            }
+        }
+
+        @Override
+        public void add(int u, int v) {
+            if (2 * size + 1 >= endpoints.length) {
+                endpoints = Arrays.copyOf(endpoints, 2 * endpoints.length);
+            }
+            endpoints[2 * size] = u;
+            endpoints[2 * size + 1] = v;
+            size++;
+        }
+    }
+
+    /**
+     * Builds a CSR snapshot in direct memory from two passes over the same file.
+     * The first pass counts degrees into the offsets, the second writes each endpoint at the running
+     * end of its range, which leaves offsets[v] at the start of v + 1 until build() shifts them back.
+     */
+    private static final class OffHeapBuilder implements EdgeSink {
+        private int n = -1;
+        private IntIntHashMap index;         // edge lists only: vertex id -> degree, then -> dense index
+        private ChunkedIntBuffer ids;
+        private ChunkedIntBuffer offsets;
+        private ChunkedIntBuffer targets;
+        private long endpoints;
+
+        @Override
+        public void begin(int n, int expectedEdges) {
+            if (offsets == null) {
+                this.n = n;
+                this.offsets = ChunkedIntBuffer.allocateDirect(n + 1);
+            }
+        }
+
+        @Override
+        public void add(int u, int v) {
+            if (targets == null) {
+                // A self-loop is dropped, but its vertex still belongs to the graph, as with load()
+                int degree = u == v ? 0 : 1;
+                count(u, degree);
+                count(v, degree);
+                endpoints += 2 * degree;
+            } else if (u != v) {
+                if (index != null) {
+                    u = index.get(u);
+                    v = index.get(v);
+                }
+                int pu = offsets.get(u);
+                int pv = offsets.get(v);
+                targets.set(pu, v);
+                targets.set(pv, u);
+                offsets.set(u, pu + 1);
+                offsets.set(v, pv + 1);
+            }
+        }
+
+        private void count(int v, int degree) {
+            if (n < 0) {
+                if (index == null) {
+                    index = new IntIntHashMap(1 << 16, 0);
+                }
+                index.put(v, index.get(v) + degree);
+            } else {
+                offsets.set(v + 1, offsets.get(v + 1) + degree);
+            }
+        }
+
+        // Between the passes: turns the degrees into range starts and allocates the adjacency
+        void allocate() throws IOException {
+            if (endpoints > Integer.MAX_VALUE) {
+                throw new IOException("Too many edges for a snapshot: " + endpoints / 2);
+            }
+            if (n < 0) {
+                int[] sorted = index == null ? new int[0] : index.keys();
+                Arrays.sort(sorted);
+                n = sorted.length;
+                ids = ChunkedIntBuffer.allocateDirect(n);
+                offsets = ChunkedIntBuffer.allocateDirect(n + 1);
+                for (int i = 0; i < n; i++) {
+                    ids.set(i, sorted[i]);
+                    offsets.set(i + 1, index.get(sorted[i]));
+                    index.put(sorted[i], i);
+                }
+            } else {
+                ids = ChunkedIntBuffer.allocateDirect(n);
+                for (int v = 0; v < n; v++) {
+                    ids.set(v, v + 1);
+                }
+            }
+            // Exclusive prefix sums, shifted one place left so that offsets[v] is where v's range starts
+            int position = 0;
+            for (int v = 0; v < n; v++) {
+                int degree = offsets.get(v + 1);
+                offsets.set(v, position);
+                position += degree;
+            }
+            offsets.set(n, position);
+            targets = ChunkedIntBuffer.allocateDirect(position);
+        }
+
+        // After the second pass: restores the range starts, then sorts each range and drops repeated edges
+        CompactGraph build() {
+            for (int v = n - 1; v > 0; v--) {
+                offsets.set(v, offsets.get(v - 1));
+            }
+            if (n > 0) {
+                offsets.set(0, 0);
+            }
+            int[] range = new int[16];
+            int write = 0;
+            for (int v = 0; v < n; v++) {
+                int begin = offsets.get(v);
+                int end = offsets.get(v + 1);
+                int degree = end - begin;
+                if (degree > range.length) {
+                    range = new int[Math.max(degree, 2 * range.length)];
+                }
+                for (int i = 0; i < degree; i++) {
+                    range[i] = targets.get(begin + i);
+                }
+                Arrays.sort(range, 0, degree);
+                offsets.set(v, write);
+                for (int i = 0; i < degree; i++) {
+                    if (i == 0 || range[i] != range[i - 1]) {
+                        targets.set(write++, range[i]);
+                    }
+                }
+            }
+            offsets.set(n, write);
+            return new MappedCompactGraph(ids, offsets, targets);
+        }
+    }
+
+    // Reads whitespace separated tokens directly from the bytes of a channel
+    private static final class Tokenizer {
+        private final FileChannel channel;
+        private final byte[] buffer = new byte[1 << 16];
+        private final ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+        private int position;
+        private int limit;
+        private long line = 1;
+
+        Tokenizer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Next byte without consuming it, or -1 at the end of the file
+        private int peek() throws IOException {
+            if (position == limit) {
+                wrapper.clear();
+                int read;
+                do {
+                    read = channel.read(wrapper);
+                } while (read == 0);
+                if (read < 0) return -1;
+                position = 0;
+                limit = read;
+            }
+            return buffer[position];
+        }
+
+        private void skipSpaces() throws IOException {
+            int c = peek();
+            while (c == ' ' || c == '\t' || c == '\r') {
+                position++;
+                c = peek();
+            }
+        }
+
+        boolean hasMore() throws IOException {
+            return peek() != -1;
+        }
+
+        // Skips blank lines and leading spaces; returns false at the end of the file
+        boolean nextLine() throws IOException {
+            while (true) {
+                skipSpaces();
+                int c = peek();
+                if (c != '\n') return c != -1;
+                position++;
+                line++;
+            }
+        }
+
+        boolean startsWith(char c) throws IOException {
+            skipSpaces();
+            return peek() == c;
+        }
+
+        boolean atLineEnd() throws IOException {
+            skipSpaces();
+            int c = peek();
+            return c == '\n' || c == -1;
+        }
+
+        // Consumes the rest of the current line including its newline
+        void skipLine() throws IOException {
+            int c = peek();
+            while (c != '\n' && c != -1) {
+                position++;
+                c = peek();
+            }
+            if (c == '\n') {
+                position++;
+                line++;
+            }
+        }
+
+        void skipToken() throws IOException {
+            skipSpaces();
+            int c = peek();
+            while (c != -1 && c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                position++;
+                c = peek();
+            }
+        }
+
+        int nextInt() throws IOException {
+            skipSpaces();
+            int c = peek();
+            boolean negative = c == '-';
+            if (negative) {
+                position++;
+                c = peek();
+            }
+            if (c < '0' || c > '9') {
+                throw error("Expected a number");
+            }
+            long value = 0;
+            while (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw error("Number out of range");
+                }
+                position++;
+                c = peek();
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        // Reads a 1-based vertex number and returns its dense index
+        int nextIndex(int n) throws IOException {
+            int v = nextInt();
+            if (v < 1 || v > n) {
+                throw error("Vertex " + v + " out of range 1.." + n);
+            }
+            return v - 1;
+        }
+
+        IOException error(String message) {
+            return new IOException(message + " at line " + line + ".");
+        }
+    }
+}
@@ -1,222 +1,703 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.Timer;
+
+/**
+ * Draws a graph and the state of a matching search on top of it.
+ * The search state is an immutable {@link MatchingFrame} owned by the event dispatch thread. A solver
+ * running on another thread hands over frames through {@link #publish(MatchingFrame)}, which keeps only
+ * the latest one, so the solver never waits for painting and painting never sees a half-updated state.
+ * The edges and plain vertices rarely change, so they are rendered once into a cached image that is
+ * thrown away only when the graph is edited. The search state (matching, forest, augmenting path,
+ * blossoms and highlighted vertices) is painted over that image on every frame, and each setter
+ * repaints only the area of the edges and vertices that actually changed.
+ * <p>
+ * Vertices are positioned in world coordinates. The wheel zooms around the cursor, dragging empty space
+ * pans and dragging a vertex moves it. A {@link VertexGrid} answers hit-tests and finds the vertices
+ * inside the viewport, so only visible vertices and edges are drawn, and labels and outlines are
+ * dropped when zoomed out. Edges are found through the grid too: no edge is longer than the largest
+ * span seen so far, so only vertices within that span of the viewport can have a visible edge.
+ * <p>
+ * A vertex being dragged is lifted out of the cached image when the drag starts and drawn over it with
+ * its edges, so each mouse event repaints only the area around that vertex. The image is rendered
+ * again once, when the vertex is dropped.
+ */
+class GraphView extends JPanel implements GraphListener {
+    private static final int NODE_RADIUS = 15;
+    private static final int SHRUNK_BLOSSOM_RADIUS = 30;
+    private static final int BLOSSOM_RADIUS = 25;
+    private static final int MARGIN = SHRUNK_BLOSSOM_RADIUS + 2; // largest distance drawn around a vertex
+    private static final Stroke EDGE_STROKE = new BasicStroke(1);
+    private static final Stroke FOREST_STROKE = new BasicStroke(1, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{5}, 0);
+    private static final Stroke MATCHING_STROKE = new BasicStroke(3);
+    private static final Stroke PATH_STROKE = new BasicStroke(2);
+    private static final Color BLOSSOM_COLOR = new Color(255, 200, 200, 100);
+    private static final double LABEL_ZOOM = 0.5;   // below this zoom vertices are drawn as plain squares
+    private static final double MIN_ZOOM = 0.002;
+    private static final double MAX_ZOOM = 8;
+    private static final int DRAG_THRESHOLD = 4;    // pixels the mouse moves before a press becomes a drag
+    private static final int SETTLE_MILLIS = 150;   // wheel pause after which a zoom is rendered in full
 
-class GraphView extends JPanel {
     private Graph graph;
-    private Map<Integer, Integer> matchingEdges;
-    private List<Integer> augmentingPath;
-    private List<Integer> blossomVertices;
+    private MatchingFrame frame = MatchingFrame.EMPTY;
+    private final AtomicReference<MatchingFrame> pendingFrame = new AtomicReference<>();
     private Map<Integer, Color> vertexColors;
-    private Map<Integer, Integer> forest;
-    private int root;
-    private int currentVertex;
-    private Map<Integer, List<Integer>> shrunkBlossoms;
-    private Map<Integer, Point> blossomCenters;
+    private Point[] blossomCenters = new Point[0]; // center of each shrunk blossom of the frame
+    private final Set<Integer> hiddenVertices = new HashSet<>(); // vertices inside a shrunk blossom
+    private VertexGrid grid;
+    private double zoom = 1;      // screen = world * zoom + pan
+    private double panX, panY;
+    private Image staticLayer;    // edges and plain vertices, or null when it must be rendered again
+    private double layerScale, layerZoom, layerPanX, layerPanY;
+    private boolean navigating;   // while true the cached layer is shifted and scaled instead of rendered again
+    private final Timer settleTimer;
+    private Point dragStart;
+    private int dragVertex = -1;
+    private boolean dragging;
+    private Integer liftedVertex; // vertex left out of the cached layer while it is dragged, or null
+    private int maxEdgeSpan;      // no edge spans more than this along either axis; it never shrinks
 
     public GraphView(Graph graph) {
         this.graph = graph;
         this.vertexColors = new HashMap<>();
-        this.forest = new HashMap<>();
-        this.matchingEdges = new HashMap<>();
-        this.shrunkBlossoms = new HashMap<>();
-        this.blossomCenters = new HashMap<>();
+        this.grid = new VertexGrid(graph);
+        this.maxEdgeSpan = edgeSpan(graph);
+        graph.addGraphListener(this);
+
+        settleTimer = new Timer(SETTLE_MILLIS, e -> {
+            navigating = false;
+            repaint();
+        });
+        settleTimer.setRepeats(false);
+
+        MouseAdapter navigation = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+                dragVertex = findVertexAt(e.getPoint());
+                dragging = false;
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null || (!dragging && dragStart.distance(e.getPoint()) < DRAG_THRESHOLD)) {
+                    return;
+                }
+                dragging = true;
+                if (dragVertex != -1) {
+                    if (liftedVertex == null) {
+                        liftedVertex = dragVertex;
+                        invalidateStaticLayer();
+                    }
+                    Point p = toWorld(e.getPoint());
+                    moveVertex(dragVertex, p.x, p.y);
+                } else {
+                    navigating = true;
+                    panX += e.getX() - dragStart.x;
+                    panY += e.getY() - dragStart.y;
+                    dragStart = e.getPoint();
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                dragStart = null;
+                dragVertex = -1;
+                if (liftedVertex != null) {
+                    liftedVertex = null;
+                    invalidateStaticLayer();
+                }
+                if (navigating) {
+                    navigating = false;
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                navigating = true;
+                settleTimer.restart();
+                zoomAt(e.getPoint(), Math.pow(1.1, -e.getPreciseWheelRotation()));
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
     }
 
     public void setGraph(Graph graph) {
+        this.graph.removeGraphListener(this);
         this.graph = graph;
-        this.matchingEdges.clear();
-        this.augmentingPath = null;
-        this.blossomVertices = null;
+        graph.addGraphListener(this);
+        this.frame = MatchingFrame.EMPTY;
         this.vertexColors.clear();
-        this.forest.clear();
-        this.shrunkBlossoms.clear();
-        this.blossomCenters.clear();
-        repaint();
+        this.blossomCenters = new Point[0];
+        this.hiddenVertices.clear();
+        this.grid = new VertexGrid(graph);
+        this.maxEdgeSpan = edgeSpan(graph);
+        this.liftedVertex = null;
+        this.zoom = 1;
+        this.panX = 0;
+        this.panY = 0;
+        invalidateStaticLayer();
     }
 
-    public void setMatchingEdges(Map<Integer, Integer> matchingEdges) {
-        this.matchingEdges = matchingEdges;
-        repaint();
+    /**
+     * Moves a vertex and keeps the spatial index in step. Vertices moved through
+     * {@link Vertex#setPosition(int, int)} directly are not seen by the view.
+     * The vertex being dragged is not part of the cached layer, so moving it only repaints its surroundings.
+     * @param vertexId the vertex to move
+     * @param x the new x coordinate in world units
+     * @param y the new y coordinate in world units
+     */
+    public void moveVertex(int vertexId, int x, int y) {
+        Vertex vertex = graph.getVertex(vertexId);
+        if (vertex == null) {
+            return;
+        }
+        boolean lifted = liftedVertex != null && liftedVertex == vertexId;
+        if (lifted) {
+            repaintIncident(vertexId);
+        }
+        vertex.setPosition(x, y);
+        grid.add(vertexId, x, y);
+        Graph.NeighborCursor neighbors = graph.neighborCursor();
+        for (neighbors.reset(vertexId); neighbors.hasNext(); ) {
+            Vertex neighbor = graph.getVertex(neighbors.next());
+            maxEdgeSpan = Math.max(maxEdgeSpan, span(x, y, neighbor.getX(), neighbor.getY()));
+        }
+        if (lifted) {
+            repaintIncident(vertexId);
+        } else {
+            invalidateStaticLayer();
+        }
     }
 
-    public void setAugmentingPath(List<Integer> augmentingPath) {
-        this.augmentingPath = augmentingPath;
-        repaint();
+    // Converts a point on the panel to world coordinates
+    public Point toWorld(Point screen) {
+        return new Point((int) Math.round((screen.x - panX) / zoom), (int) Math.round((screen.y - panY) / zoom));
     }
 
-    public void setForest(Map<Integer, Integer> forest) {
-        this.forest = forest;
+    /**
+     * Scales the view around a point of the panel, which keeps showing the same world position.
+     * @param screen the fixed point on the panel
+     * @param factor the zoom multiplier; above 1 zooms in
+     */
+    public void zoomAt(Point screen, double factor) {
+        double next = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        panX = screen.x - (screen.x - panX) * next / zoom;
+        panY = screen.y - (screen.y - panY) * next / zoom;
+        zoom = next;
         repaint();
     }
 
-    public void setRoot(int root) {
-        this.root = root;
+    // Zooms and pans so that the whole graph is visible, never enlarging it beyond its natural size
+    public void fitToView() {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (Integer vertexId : graph.getVertices()) {
+            Vertex vertex = graph.getVertex(vertexId);
+            minX = Math.min(minX, vertex.getX());
+            minY = Math.min(minY, vertex.getY());
+            maxX = Math.max(maxX, vertex.getX());
+            maxY = Math.max(maxY, vertex.getY());
+        }
+        if (minX > maxX) {
+            zoom = 1;
+            panX = 0;
+            panY = 0;
+        } else {
+            double width = maxX - minX + 2 * MARGIN;
+            double height = maxY - minY + 2 * MARGIN;
+            zoom = Math.max(MIN_ZOOM, Math.min(1, Math.min(Math.max(getWidth(), 1) / width, Math.max(getHeight(), 1) / height)));
+            panX = (getWidth() - (maxX + minX) * zoom) / 2;
+            panY = (getHeight() - (maxY + minY) * zoom) / 2;
+        }
         repaint();
     }
 
-    public void setCurrentVertex(int currentVertex) {
-        this.currentVertex = currentVertex;
+    // Drops the cached edges and vertices; needed after vertices are moved, which the graph does not report
+    public void invalidateStaticLayer() {
+        staticLayer = null;
         repaint();
     }
 
-    public void highlightBlossom(List<Integer> blossomVertices) {
-        this.blossomVertices = blossomVertices;
-        repaint();
+    @Override
+    public void onVertexAdded(int id) {
+        Vertex vertex = graph.getVertex(id);
+        grid.add(id, vertex.getX(), vertex.getY());
+        invalidateStaticLayer();
     }
 
-    public void shrinkBlossom(int lcaVertex, List<Integer> blossomVertices) {
-        shrunkBlossoms.put(lcaVertex, blossomVertices);
-        calculateBlossomCenter(lcaVertex, blossomVertices);
-        repaint();
+    @Override
+    public void onVertexRemoved(int id) {
+        grid.remove(id);
+        invalidateStaticLayer();
+    }
+
+    @Override
+    public void onEdgeAdded(int from, int to) {
+        Vertex a = graph.getVertex(from);
+        Vertex b = graph.getVertex(to);
+        maxEdgeSpan = Math.max(maxEdgeSpan, span(a.getX(), a.getY(), b.getX(), b.getY()));
+        invalidateStaticLayer();
+    }
+
+    @Override
+    public void onEdgeRemoved(int from, int to) {
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Hands a frame to the view from any thread. Only the latest frame is kept: if several arrive before
+     * the event dispatch thread gets to them, the older ones are skipped.
+     * @param frame the state to show
+     */
+    public void publish(MatchingFrame frame) {
+        if (pendingFrame.getAndSet(frame) == null) {
+            SwingUtilities.invokeLater(() -> {
+                MatchingFrame latest = pendingFrame.getAndSet(null);
+                if (latest != null) {
+                    showFrame(latest);
+                }
+            });
+        }
+    }
+
+    /**
+     * Shows a frame right away and repaints only what differs from the previous one.
+     * Must be called on the event dispatch thread; other threads use {@link #publish(MatchingFrame)}.
+     * @param next the state to show
+     */
+    public void showFrame(MatchingFrame next) {
+        MatchingFrame previous = frame;
+        repaintChangedEdges(previous.matchingKeys(), next.matchingKeys());
+        repaintChangedEdges(previous.forestKeys(), next.forestKeys());
+        if (!Arrays.equals(previous.getPath(), next.getPath())) {
+            repaintPath(previous.getPath());
+            repaintPath(next.getPath());
+        }
+        if (!Arrays.equals(previous.getHighlighted(), next.getHighlighted())) {
+            repaintVertices(previous.getHighlighted(), BLOSSOM_RADIUS);
+            repaintVertices(next.getHighlighted(), BLOSSOM_RADIUS);
+        }
+        if (previous.getRoot() != next.getRoot()) {
+            repaintVertex(previous.getRoot(), NODE_RADIUS);
+            repaintVertex(next.getRoot(), NODE_RADIUS);
+        }
+        if (previous.getCurrent() != next.getCurrent()) {
+            repaintVertex(previous.getCurrent(), NODE_RADIUS);
+            repaintVertex(next.getCurrent(), NODE_RADIUS);
+        }
+        repaintBlossoms();
+        frame = next;
+        hiddenVertices.clear();
+        blossomCenters = new Point[next.getNumBlossoms()];
+        for (int i = 0; i < blossomCenters.length; i++) {
+            for (int v : next.getBlossom(i)) {
+                hiddenVertices.add(v);
+            }
+            blossomCenters[i] = blossomCenter(next.getBlossom(i));
+        }
+        repaintBlossoms();
+    }
+
+    // Repaints the shrunk blossoms of the current frame and the vertices they cover
+    private void repaintBlossoms() {
+        for (int i = 0; i < blossomCenters.length; i++) {
+            repaintVertices(frame.getBlossom(i), NODE_RADIUS);
+            Point center = blossomCenters[i];
+            if (center != null) {
+                repaintWorld(center.x - MARGIN, center.y - MARGIN, 2 * MARGIN, 2 * MARGIN);
+            }
+        }
     }
 
     public void pickVertex(int vertexId, Color color) {
         vertexColors.put(vertexId, color);
-        repaint();
+        repaintVertex(vertexId, NODE_RADIUS);
     }
 
     public void clearPickedVertex(int vertexId) {
         vertexColors.remove(vertexId);
-        repaint();
+        repaintVertex(vertexId, NODE_RADIUS);
     }
 
-    private void calculateBlossomCenter(int lcaVertex, List<Integer> blossomVertices) {
-        int sumX = 0, sumY = 0;
+    // Average position of the blossom vertices still in the graph, or null if none is left
+    private Point blossomCenter(int[] blossomVertices) {
+        int sumX = 0, sumY = 0, count = 0;
         for (int v : blossomVertices) {
-            Point p = graph.getVertex(v).getPosition();
-            sumX += p.x;
-            sumY += p.y;
+            Vertex vertex = graph.getVertex(v);
+            if (vertex != null) {
+                sumX += vertex.getX();
+                sumY += vertex.getY();
+                count++;
+            }
+        }
+        return count == 0 ? null : new Point(sumX / count, sumY / count);
+    }
+
+    // Repaints the edges whose keys are in one sorted array but not the other, with a single merge pass
+    private void repaintChangedEdges(long[] before, long[] after) {
+        int i = 0, j = 0;
+        while (i < before.length || j < after.length) {
+            if (j == after.length || (i < before.length && before[i] < after[j])) {
+                repaintEdge(MatchingFrame.high(before[i]), MatchingFrame.low(before[i]));
+                i++;
+            } else if (i == before.length || after[j] < before[i]) {
+                repaintEdge(MatchingFrame.high(after[j]), MatchingFrame.low(after[j]));
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private void repaintPath(int[] path) {
+        if (path == null) {
+            return;
+        }
+        for (int i = 0; i + 1 < path.length; i++) {
+            repaintEdge(path[i], path[i + 1]);
+        }
+    }
+
+    private void repaintVertices(int[] vertexIds, int radius) {
+        if (vertexIds == null) {
+            return;
+        }
+        for (int v : vertexIds) {
+            repaintVertex(v, radius);
+        }
+    }
+
+    // Swing merges these requests into one dirty rectangle per frame
+    private void repaintVertex(int vertexId, int radius) {
+        Vertex vertex = graph.getVertex(vertexId);
+        if (vertex != null) {
+            Point p = vertex.getPosition();
+            repaintWorld(p.x - radius - 1, p.y - radius - 1, 2 * radius + 2, 2 * radius + 2);
+        }
+    }
+
+    // Repaints a vertex with everything drawn around it and all of its edges
+    private void repaintIncident(int vertexId) {
+        repaintVertex(vertexId, MARGIN);
+        Graph.NeighborCursor neighbors = graph.neighborCursor();
+        for (neighbors.reset(vertexId); neighbors.hasNext(); ) {
+            repaintEdge(vertexId, neighbors.next());
         }
-        int centerX = sumX / blossomVertices.size();
-        int centerY = sumY / blossomVertices.size();
-        blossomCenters.put(lcaVertex, new Point(centerX, centerY));
+    }
+
+    private void repaintEdge(int u, int v) {
+        Vertex a = graph.getVertex(u);
+        Vertex b = graph.getVertex(v);
+        if (a == null || b == null) {
+            repaint();
+            return;
+        }
+        Point p = a.getPosition();
+        Point q = b.getPosition();
+        int x = Math.min(p.x, q.x) - NODE_RADIUS - 1;
+        int y = Math.min(p.y, q.y) - NODE_RADIUS - 1;
+        repaintWorld(x, y, Math.abs(p.x - q.x) + 2 * NODE_RADIUS + 2, Math.abs(p.y - q.y) + 2 * NODE_RADIUS + 2);
+    }
+
+    // Repaints the panel area showing a rectangle given in world coordinates
+    private void repaintWorld(int x, int y, int width, int height) {
+        int screenX = (int) Math.floor(x * zoom + panX) - 1;
+        int screenY = (int) Math.floor(y * zoom + panY) - 1;
+        repaint(screenX, screenY, (int) Math.ceil(width * zoom) + 3, (int) Math.ceil(height * zoom) + 3);
+    }
+
+    // The part of the world that the panel shows
+    private Rectangle worldViewport() {
+        Point topLeft = toWorld(new Point(0, 0));
+        return new Rectangle(topLeft.x - 1, topLeft.y - 1,
+                (int) Math.ceil(getWidth() / zoom) + 2, (int) Math.ceil(getHeight() / zoom) + 2);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        drawGraph(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            drawGraph(g2);
+        } finally {
+            g2.dispose();
+        }
     }
 
-    private void drawGraph(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g;
+    private void drawGraph(Graphics2D g2) {
+        // Edges and plain vertices come from the cache, moved to the current view while navigating
+        Image layer = staticLayer(g2);
+        double factor = zoom / layerZoom;
+        g2.drawImage(layer, (int) Math.round(panX - layerPanX * factor), (int) Math.round(panY - layerPanY * factor),
+                (int) Math.round(getWidth() * factor), (int) Math.round(getHeight() * factor), null);
 
-        // Draw forest edges
-        g2.setColor(Color.BLUE);
-        g2.setStroke(new BasicStroke(1, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND, 0, new float[]{5}, 0));
-        for (Map.Entry<Integer, Integer> entry : forest.entrySet()) {
-            Vertex child = graph.getVertex(entry.getKey());
-            Vertex parent = graph.getVertex(entry.getValue());
-            g2.drawLine(child.getPosition().x, child.getPosition().y, parent.getPosition().x, parent.getPosition().y);
+        // The overlays are drawn in world coordinates, so the clip is too
+        g2.translate(panX, panY);
+        g2.scale(zoom, zoom);
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = worldViewport();
         }
+        boolean detailed = zoom >= LABEL_ZOOM;
 
-        // Draw regular edges
-        g2.setColor(Color.BLACK);
-        g2.setStroke(new BasicStroke(1));
-        for (Integer vertexId : graph.getVertices()) {
-            Vertex vertex = graph.getVertex(vertexId);
-            Point p = vertex.getPosition();
-            for (Integer neighborId : graph.getNeighbors(vertexId)) {
-                Vertex neighbor = graph.getVertex(neighborId);
-                Point q = neighbor.getPosition();
-                g2.drawLine(p.x, p.y, q.x, q.y);
+        // Draw the edges of the dragged vertex, which the cache leaves out, and the neighbors they cross
+        Integer lifted = liftedVertex;
+        if (lifted != null) {
+            g2.setColor(Color.BLACK);
+            g2.setStroke(EDGE_STROKE);
+            Graph.NeighborCursor neighbors = graph.neighborCursor();
+            for (neighbors.reset(lifted); neighbors.hasNext(); ) {
+                drawEdge(g2, clip, lifted, neighbors.next());
+            }
+            for (neighbors.reset(lifted); neighbors.hasNext(); ) {
+                drawVertex(g2, clip, detailed, neighbors.next());
             }
         }
 
+        MatchingFrame frame = this.frame;
+
+        // Draw forest edges
+        g2.setColor(Color.BLUE);
+        g2.setStroke(FOREST_STROKE);
+        for (int i = 0; i < frame.getNumTreeEdges(); i++) {
+            drawEdge(g2, clip, frame.getChild(i), frame.getParent(i));
+        }
+
         // Draw matching edges
-        if (matchingEdges != null) {
-            g2.setColor(Color.RED);
-            g2.setStroke(new BasicStroke(3));
-            for (Map.Entry<Integer, Integer> entry : matchingEdges.entrySet()) {
-                if (entry.getKey() < entry.getValue()) {
-                    Vertex v1 = graph.getVertex(entry.getKey());
-                    Vertex v2 = graph.getVertex(entry.getValue());
-                    g2.drawLine(v1.getPosition().x, v1.getPosition().y, v2.getPosition().x, v2.getPosition().y);
-                }
-            }
+        g2.setColor(Color.RED);
+        g2.setStroke(MATCHING_STROKE);
+        for (int i = 0; i < frame.getNumMatched(); i++) {
+            drawEdge(g2, clip, frame.getMatchedU(i), frame.getMatchedV(i));
         }
 
         // Draw augmenting path
-        if (augmentingPath != null) {
+        int[] path = frame.getPath();
+        if (path != null) {
             g2.setColor(Color.GREEN);
-            g2.setStroke(new BasicStroke(2));
-            for (int i = 0; i < augmentingPath.size() - 1; i++) {
-                Vertex v1 = graph.getVertex(augmentingPath.get(i));
-                Vertex v2 = graph.getVertex(augmentingPath.get(i + 1));
-                g2.drawLine(v1.getPosition().x, v1.getPosition().y, v2.getPosition().x, v2.getPosition().y);
+            g2.setStroke(PATH_STROKE);
+            for (int i = 0; i < path.length - 1; i++) {
+                drawEdge(g2, clip, path[i], path[i + 1]);
             }
         }
+        g2.setStroke(EDGE_STROKE);
 
         // Draw shrunk blossoms
-        g2.setColor(new Color(255, 200, 200, 100));
-        for (Map.Entry<Integer, List<Integer>> entry : shrunkBlossoms.entrySet()) {
-            int lcaVertex = entry.getKey();
-            Point center = blossomCenters.get(lcaVertex);
-            int blossomRadius = 30;
-            g2.fillOval(center.x - blossomRadius, center.y - blossomRadius, 2 * blossomRadius, 2 * blossomRadius);
-            g2.setColor(Color.BLACK);
-            g2.drawString("B" + lcaVertex, center.x - 5, center.y + 5);
-            g2.setColor(new Color(255, 200, 200, 100));
+        for (int i = 0; i < frame.getNumBlossoms(); i++) {
+            Point center = blossomCenters[i];
+            if (center == null) continue;
+            g2.setColor(BLOSSOM_COLOR);
+            g2.fillOval(center.x - SHRUNK_BLOSSOM_RADIUS, center.y - SHRUNK_BLOSSOM_RADIUS, 2 * SHRUNK_BLOSSOM_RADIUS, 2 * SHRUNK_BLOSSOM_RADIUS);
+            if (detailed) {
+                g2.setColor(Color.BLACK);
+                g2.drawString("B" + frame.getBlossomBase(i), center.x - 5, center.y + 5);
+            }
         }
 
-        // Draw vertices
-        for (Integer vertexId : graph.getVertices()) {
-            Vertex vertex = graph.getVertex(vertexId);
-            Point p = vertex.getPosition();
-
-            if (!isVertexInShrunkBlossom(vertexId)) {
-                if (vertexColors.containsKey(vertexId)) {
-                    g2.setColor(vertexColors.get(vertexId));
-                } else if (vertexId == root) {
-                    g2.setColor(Color.GREEN);
-                } else if (vertexId == currentVertex) {
-                    g2.setColor(Color.ORANGE);
-                } else if (forest.containsKey(vertexId)) {
-                    g2.setColor(Color.CYAN);
-                } else {
-                    g2.setColor(Color.WHITE);
-                }
-
-                int nodeRadius = 15;
-                g2.fillOval(p.x - nodeRadius, p.y - nodeRadius, 2 * nodeRadius, 2 * nodeRadius);
-                g2.setColor(Color.BLACK);
-                g2.drawOval(p.x - nodeRadius, p.y - nodeRadius, 2 * nodeRadius, 2 * nodeRadius);
-                g2.drawString(String.valueOf(vertexId), p.x - 5, p.y + 5);
+        // Redraw the vertices that the overlays cover or color; all others are already in the cache
+        for (int i = 0; i < frame.getNumTreeEdges(); i++) {
+            drawVertex(g2, clip, detailed, frame.getChild(i));
+            drawVertex(g2, clip, detailed, frame.getParent(i));
+        }
+        for (int i = 0; i < frame.getNumMatched(); i++) {
+            drawVertex(g2, clip, detailed, frame.getMatchedU(i));
+            drawVertex(g2, clip, detailed, frame.getMatchedV(i));
+        }
+        if (path != null) {
+            for (int vertexId : path) {
+                drawVertex(g2, clip, detailed, vertexId);
             }
         }
+        for (Integer vertexId : vertexColors.keySet()) {
+            drawVertex(g2, clip, detailed, vertexId);
+        }
+        drawVertex(g2, clip, detailed, frame.getRoot());
+        drawVertex(g2, clip, detailed, frame.getCurrent());
+        if (lifted != null) {
+            drawVertex(g2, clip, detailed, lifted);
+        }
 
         // Draw blossom (before shrinking)
-        if (blossomVertices != null) {
-            g2.setColor(new Color(255, 200, 200, 100));
-            for (Integer vertexId : blossomVertices) {
+        int[] highlighted = frame.getHighlighted();
+        if (highlighted != null) {
+            g2.setColor(BLOSSOM_COLOR);
+            for (int vertexId : highlighted) {
                 Vertex vertex = graph.getVertex(vertexId);
+                if (vertex == null) continue;
                 Point p = vertex.getPosition();
-                int blossomRadius = 25;
-                g2.fillOval(p.x - blossomRadius, p.y - blossomRadius, 2 * blossomRadius, 2 * blossomRadius);
+                g2.fillOval(p.x - BLOSSOM_RADIUS, p.y - BLOSSOM_RADIUS, 2 * BLOSSOM_RADIUS, 2 * BLOSSOM_RADIUS);
             }
         }
     }
 
-    private boolean isVertexInShrunkBlossom(int vertexId) {
-        for (List<Integer> blossom : shrunkBlossoms.values()) {
-            if (blossom.contains(vertexId)) {
-                return true;
-            }
+    // Returns the cached layer, rendering it again after an edit, a resize, a finished zoom or pan, or a change of display scale
+    private Image staticLayer(Graphics2D g2) {
+        int width = Math.max(getWidth(), 1);
+        int height = Math.max(getHeight(), 1);
+        double scale = g2.getTransform().getScaleX();
+        int pixelWidth = (int) Math.ceil(width * scale);
+        int pixelHeight = (int) Math.ceil(height * scale);
+        if (staticLayer != null && layerScale == scale
+                && (navigating || (layerZoom == zoom && layerPanX == panX && layerPanY == panY))
+                && staticLayer.getWidth(null) == pixelWidth && staticLayer.getHeight(null) == pixelHeight) {
+            return staticLayer;
         }
-        return false;
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        BufferedImage image = configuration != null
+                ? configuration.createCompatibleImage(pixelWidth, pixelHeight)
+                : new BufferedImage(pixelWidth, pixelHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D layer = image.createGraphics();
+        layer.setColor(getBackground());
+        layer.fillRect(0, 0, pixelWidth, pixelHeight);
+        layer.scale(scale, scale);
+        layer.translate(panX, panY);
+        layer.scale(zoom, zoom);
+        layer.setFont(g2.getFont());
+        Rectangle view = worldViewport();
+        boolean detailed = zoom >= LABEL_ZOOM;
+
+        // Draw regular edges that cross the viewport, once per undirected edge. An edge that crosses it has
+        // both ends within maxEdgeSpan of it, so only those vertices are visited; the dragged one is left out
+        layer.setColor(Color.BLACK);
+        layer.setStroke(EDGE_STROKE);
+        Integer lifted = liftedVertex;
+        Rectangle candidates = grow(view, maxEdgeSpan);
+        Graph.NeighborCursor neighbors = graph.neighborCursor();
+        grid.forEachIn(candidates, vertexId -> {
+            if (lifted != null && lifted == vertexId) {
+                return;
+            }
+            Vertex vertex = graph.getVertex(vertexId);
+            int px = vertex.getX(), py = vertex.getY();
+            for (neighbors.reset(vertexId); neighbors.hasNext(); ) {
+                int neighborId = neighbors.next();
+                if (lifted != null && lifted == neighborId) {
+                    continue;
+                }
+                Vertex neighbor = graph.getVertex(neighborId);
+                int qx = neighbor.getX(), qy = neighbor.getY();
+                // An edge with both ends among the candidates is met twice
+                if ((vertexId < neighborId || !contains(candidates, qx, qy)) && view.intersectsLine(px, py, qx, qy)) {
+                    layer.drawLine(px, py, qx, qy);
+                }
+            }
+        });
+
+        // Draw the vertices in the viewport
+        Rectangle area = grow(view, NODE_RADIUS);
+        grid.forEachIn(area, vertexId -> {
+            if (lifted == null || lifted != vertexId) {
+                paintVertex(layer, graph.getVertex(vertexId).getPosition(), vertexId, Color.WHITE, detailed);
+            }
+        });
+        layer.dispose();
+        staticLayer = image;
+        layerScale = scale;
+        layerZoom = zoom;
+        layerPanX = panX;
+        layerPanY = panY;
+        return image;
     }
 
-    public int findVertexAt(Point point) {
+    // Largest extent of an edge along either axis, taken over all edges of the graph
+    private static int edgeSpan(Graph graph) {
+        int span = 0;
+        Graph.NeighborCursor neighbors = graph.neighborCursor();
         for (Integer vertexId : graph.getVertices()) {
             Vertex vertex = graph.getVertex(vertexId);
-            Point pos = vertex.getPosition();
-            if (pos.distance(point) < 15) {
-                return vertexId;
+            for (neighbors.reset(vertexId); neighbors.hasNext(); ) {
+                Vertex neighbor = graph.getVertex(neighbors.next());
+                span = Math.max(span, span(vertex.getX(), vertex.getY(), neighbor.getX(), neighbor.getY()));
             }
         }
-        return -1;
+        return span;
+    }
+
+    private static int span(int px, int py, int qx, int qy) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(Math.abs((long) px - qx), Math.abs((long) py - qy)));
+    }
+
+    // The rectangle enlarged by a distance on every side, clamped to the int range
+    private static Rectangle grow(Rectangle area, int distance) {
+        long x0 = Math.max(Integer.MIN_VALUE, (long) area.x - distance);
+        long y0 = Math.max(Integer.MIN_VALUE, (long) area.y - distance);
+        long x1 = Math.min(Integer.MAX_VALUE, (long) area.x + area.width + distance);
+        long y1 = Math.min(Integer.MAX_VALUE, (long) area.y + area.height + distance);
+        return new Rectangle((int) x0, (int) y0, (int) Math.min(Integer.MAX_VALUE, x1 - x0), (int) Math.min(Integer.MAX_VALUE, y1 - y0));
+    }
+
+    // Same test as VertexGrid.forEachIn, borders included
+    private static boolean contains(Rectangle area, int x, int y) {
+        return x >= area.x && (long) x <= (long) area.x + area.width && y >= area.y && (long) y <= (long) area.y + area.height;
+    }
+
+    // Skips edges whose vertices are gone, since a frame may arrive after the graph was edited
+    private void drawEdge(Graphics2D g2, Rectangle clip, int u, int v) {
+        Vertex a = graph.getVertex(u);
+        Vertex b = graph.getVertex(v);
+        if (a == null || b == null) {
+            return;
+        }
+        Point p = a.getPosition();
+        Point q = b.getPosition();
+        if (clip.intersectsLine(p.x, p.y, q.x, q.y)) {
+            g2.drawLine(p.x, p.y, q.x, q.y);
+        }
+    }
+
+    private void drawVertex(Graphics2D g2, Rectangle clip, boolean detailed, int vertexId) {
+        Vertex vertex = graph.getVertex(vertexId);
+        if (vertex == null || hiddenVertices.contains(vertexId)) {
+            return;
+        }
+        Point p = vertex.getPosition();
+        if (!clip.intersects(p.x - NODE_RADIUS, p.y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS)) {
+            return;
+        }
+        Color color;
+        if (vertexColors.containsKey(vertexId)) {
+            color = vertexColors.get(vertexId);
+        } else if (vertexId == frame.getRoot()) {
+            color = Color.GREEN;
+        } else if (vertexId == frame.getCurrent()) {
+            color = Color.ORANGE;
+        } else if (frame.isInForest(vertexId)) {
+            color = Color.CYAN;
+        } else {
+            color = Color.WHITE;
+        }
+        paintVertex(g2, p, vertexId, color, detailed);
+    }
+
+    // Without detail a vertex is a filled square, which is much cheaper than an outlined, labelled circle
+    private static void paintVertex(Graphics2D g2, Point p, int vertexId, Color color, boolean detailed) {
+        if (!detailed) {
+            g2.setColor(color == Color.WHITE ? Color.DARK_GRAY : color);
+            g2.fillRect(p.x - NODE_RADIUS, p.y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
+            return;
+        }
+        g2.setColor(color);
+        g2.fillOval(p.x - NODE_RADIUS, p.y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
+        g2.setColor(Color.BLACK);
+        g2.drawOval(p.x - NODE_RADIUS, p.y - NODE_RADIUS, 2 * NODE_RADIUS, 2 * NODE_RADIUS);
+        g2.drawString(String.valueOf(vertexId), p.x - 5, p.y + 5);
+    }
+
+    // Finds the vertex under a point of the panel, or -1
+    public int findVertexAt(Point point) {
+        Point world = toWorld(point);
+        return grid.nearest(world.x, world.y, NODE_RADIUS);
     }
 
     public void pickEdge(int vertexId) {
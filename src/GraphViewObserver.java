@@ -0,0 +1,106 @@
+import java.util.*;
+
+/**
+ * Animates a matching search on a {@link GraphView}, pausing after every step so the user can follow it.
+ * The search runs on its own thread, so every step is copied into an immutable {@link MatchingFrame}
+ * and published to the view; the maps of the algorithm are never shared with the event dispatch thread.
+ */
+class GraphViewObserver implements MatchingObserver {
+    private final GraphView graphView;
+    private Map<Integer, Integer> matching = Collections.emptyMap();
+    private Map<Integer, Integer> forest = Collections.emptyMap();
+    private final Map<Integer, List<Integer>> blossoms = new LinkedHashMap<>();
+    private List<Integer> highlighted;
+    private List<Integer> path;
+    private int root = -1;
+    private int current = -1;
+
+    public GraphViewObserver(GraphView graphView) {
+        this.graphView = graphView;
+    }
+
+    @Override
+    public void onStart(Map<Integer, Integer> matching, Map<Integer, Integer> forest) {
+        this.matching = matching;
+        this.forest = forest;
+        publish();
+    }
+
+    @Override
+    public void onRootChosen(int root) {
+        System.out.println("Starting augmentation from root: " + root);
+        this.root = root;
+        blossoms.clear();
+        highlighted = null;
+        publish();
+    }
+
+    @Override
+    public void onVertexScanned(int vertex, Map<Integer, Integer> forest) {
+        System.out.println("Processing vertex: " + vertex);
+        this.current = vertex;
+        this.forest = forest;
+        publish();
+        sleep(500);
+    }
+
+    @Override
+    public void onTreeGrown(Map<Integer, Integer> forest) {
+        this.forest = forest;
+        publish();
+        sleep(500);
+    }
+
+    @Override
+    public void onAugmentingPath(List<Integer> path) {
+        System.out.println("Augmenting path found: " + path.get(path.size() - 2) + " - " + path.get(path.size() - 1));
+        this.path = path;
+        publish();
+        sleep(1000);
+    }
+
+    @Override
+    public void onAugmented(List<Integer> path) {
+        System.out.println("Augmenting path: " + path);
+        this.path = null;
+        publish();
+    }
+
+    @Override
+    public void onBlossomFound(int lca, List<Integer> blossom) {
+        System.out.println("Shrinking blossom with LCA: " + lca);
+        highlighted = blossom;
+        publish();
+        sleep(1000);
+    }
+
+    @Override
+    public void onBlossomShrunk(int lca, List<Integer> blossom) {
+        highlighted = null;
+        blossoms.put(lca, new ArrayList<>(blossom));
+        publish();
+        sleep(1000);
+    }
+
+    @Override
+    public void onIteration(Map<Integer, Integer> matching, Map<Integer, Integer> forest) {
+        System.out.println("Current matching: " + matching);
+        this.matching = matching;
+        this.forest = forest;
+        publish();
+        sleep(1000);
+    }
+
+    // Copies the state on the search thread, where the maps are safe to read
+    private void publish() {
+        graphView.publish(MatchingFrame.of(matching, forest, path, blossoms, highlighted, root, current));
+    }
+
+    private void sleep(int milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
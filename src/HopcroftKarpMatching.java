@@ -0,0 +1,249 @@
+import java.util.*;
+
+/**
+ * Hopcroft-Karp maximum matching for bipartite graphs, in O(E * sqrt(V)) time.
+ * Each phase layers the graph by a breadth-first search from all free left vertices and then
+ * augments along a maximal set of vertex-disjoint shortest paths with an iterative depth-first search.
+ */
+public class HopcroftKarpMatching {
+    private static final int NONE = -1;
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final CompactGraph graph;
+    private final byte[] side;
+    private final int n;
+    private final int[] mate;
+    private final int[] dist;
+    private final int[] queue;
+    private final int[] stack;
+    private final int[] nextEdge;
+    private final MatchingStats stats = new MatchingStats();
+    private MatchingBudget budget = MatchingBudget.UNLIMITED;
+    private int shortest;  // matched edges on a shortest augmenting path, set by layer()
+    private boolean stopped; // layer() gave up because the budget ran out
+    private long upperBound;
+
+    /**
+     * Creates a solver for a bipartite snapshot.
+     * @param graph the graph to match
+     * @param side the side (0 or 1) of every dense index, as returned by {@link CompactGraph#bipartition()}
+     */
+    public HopcroftKarpMatching(CompactGraph graph, byte[] side) {
+        this.graph = graph;
+        this.side = side;
+        this.n = graph.getNumVertices();
+        this.mate = new int[n];
+        this.dist = new int[n];
+        this.queue = new int[n];
+        this.stack = new int[n];
+        this.nextEdge = new int[n];
+    }
+
+    /**
+     * Creates a solver for a snapshot, computing its bipartition first.
+     * @param graph the graph to match
+     * @throws IllegalArgumentException if the graph is not bipartite
+     */
+    public HopcroftKarpMatching(CompactGraph graph) {
+        this(graph, requireBipartition(graph));
+    }
+
+    private static byte[] requireBipartition(CompactGraph graph) {
+        byte[] side = graph.bipartition();
+        if (side == null) {
+            throw new IllegalArgumentException("The graph is not bipartite.");
+        }
+        return side;
+    }
+
+    /**
+     * Lets the solves stop early with the best matching found so far; see {@link #getUpperBound()}.
+     * Defaults to {@link MatchingBudget#UNLIMITED}.
+     * @param budget the limits of every solve
+     */
+    public void setBudget(MatchingBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Computes a maximum matching.
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve() {
+        return solve(null);
+    }
+
+    /**
+     * Computes a maximum matching, starting from the given matching instead of the empty one.
+     * @param initialMate the mate of every dense index, or null to start from the empty matching
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve(int[] initialMate) {
+        if (initialMate != null) {
+            System.arraycopy(initialMate, 0, mate, 0, n);
+        } else {
+            Arrays.fill(mate, NONE);
+        }
+        long start = System.nanoTime();
+        long size = 0, freeLeft = 0, freeRight = 0;
+        for (int u = 0; u < n; u++) {
+            if (mate[u] != NONE) {
+                size++;
+            } else if (side[u] == 0) {
+                freeLeft++;
+            } else {
+                freeRight++;
+            }
+        }
+        size /= 2;
+        // Every augmenting path joins a free left and a free right vertex, and once the shortest one has
+        // k matched edges, the optimum is at most (k + 1) / k times the matching at that point
+        upperBound = size + Math.min(freeLeft, freeRight);
+        boolean limited = !budget.isUnlimited();
+        long searches = 0, firstEdges = stats.edgesScanned;
+        search:
+        while (true) {
+            boolean found = layer(limited, start, firstEdges);
+            if (stopped) {
+                break;
+            }
+            if (!found) {
+                upperBound = size; // no augmenting path is left
+                break;
+            }
+            if (shortest > 0) {
+                upperBound = Math.min(upperBound, size + size / shortest);
+            }
+            stats.phases++;
+            for (int u = 0; u < n; u++) {
+                nextEdge[u] = graph.firstEdge(u);
+            }
+            for (int u = 0; u < n; u++) {
+                if (side[u] == 0 && mate[u] == NONE) {
+                    if (limited && (budget.isCloseEnough(size, upperBound)
+                            || budget.isExhausted(searches, start, stats.edgesScanned - firstEdges))) {
+                        break search;
+                    }
+                    searches++;
+                    stats.searches++;
+                    if (augmentFrom(u)) {
+                        stats.augmentations++;
+                        size++;
+                        upperBound = Math.min(upperBound, size + Math.min(--freeLeft, --freeRight));
+                    } else {
+                        stats.failedSearches++;
+                    }
+                }
+            }
+        }
+        stats.searchNanos += System.nanoTime() - start;
+        return mate.clone();
+    }
+
+    // Size of a maximum matching is at most this; equal to the size of the matching of the last solve unless its budget ran out
+    public long getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Computes a maximum matching and maps it back to vertex ids.
+     * @return the matching with each pair stored in both directions
+     */
+    public Map<Integer, Integer> findMaximumMatching() {
+        return graph.toMatching(solve());
+    }
+
+    // Work done by the solves of this instance so far
+    public MatchingStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Computes BFS layers of the left vertices, stopping after the first layer that reaches a free
+     * right vertex, so that the phase only follows shortest augmenting paths.
+     * @return whether a free right vertex is reachable
+     */
+    private boolean layer(boolean limited, long start, long firstEdges) {
+        int head = 0, tail = 0;
+        for (int u = 0; u < n; u++) {
+            if (side[u] == 0 && mate[u] == NONE) {
+                dist[u] = 0;
+                queue[tail++] = u;
+            } else {
+                dist[u] = INFINITY;
+            }
+        }
+        boolean found = false;
+        shortest = 0;
+        stopped = false;
+        while (head < tail) {
+            // On a large graph a single layering can outlast the budget, so it is checked here too
+            if (limited && (head & 1023) == 0 && budget.isExhausted(0, start, stats.edgesScanned - firstEdges)) {
+                stopped = true;
+                return false;
+            }
+            int u = queue[head++];
+            if (found && dist[u] > shortest) {
+                break; // everything from here on is deeper than a shortest augmenting path
+            }
+            stats.verticesDequeued++;
+            stats.edgesScanned += graph.endEdge(u) - graph.firstEdge(u);
+            for (int e = graph.firstEdge(u), end = graph.endEdge(u); e < end; e++) {
+                int w = mate[graph.target(e)];
+                if (w == NONE) {
+                    if (!found) {
+                        shortest = dist[u]; // layers are dequeued in order, so the first one found is the shortest
+                    }
+                    found = true;
+                } else if (dist[w] == INFINITY && !found) {
+                    dist[w] = dist[u] + 1;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Follows the layers from the free left vertex start and augments along the first path found.
+     * A free right vertex only ends a path from the last layer, so every path of a phase is a shortest one.
+     * @return whether it augmented
+     */
+    private boolean augmentFrom(int start) {
+        long scanned = 0;
+        int top = 0;
+        stack[0] = start;
+        while (top >= 0) {
+            int u = stack[top];
+            if (nextEdge[u] == graph.endEdge(u)) {
+                // Dead end: never visit u again in this phase
+                dist[u] = INFINITY;
+                top--;
+                if (top >= 0) {
+                    nextEdge[stack[top]]++;
+                }
+                continue;
+            }
+            int v = graph.target(nextEdge[u]);
+            int w = mate[v];
+            scanned++;
+            if (w == NONE && dist[u] == shortest) {
+                for (int i = top; i >= 0; i--) {
+                    int x = stack[i];
+                    int y = graph.target(nextEdge[x]);
+                    mate[x] = y;
+                    mate[y] = x;
+                }
+                stats.edgesScanned += scanned;
+                return true;
+            }
+            if (w != NONE && dist[u] < shortest && dist[w] == dist[u] + 1) {
+                stack[++top] = w;
+            } else {
+                nextEdge[u]++;
+            }
+        }
+        stats.edgesScanned += scanned;
+        return false;
+    }
+}
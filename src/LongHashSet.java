@@ -0,0 +1,105 @@
+import java.util.function.LongConsumer;
+
+/**
+ * Set of long keys with open addressing and linear probing, so membership tests neither box nor allocate.
+ */
+final class LongHashSet {
+    private long[] keys;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates an empty set.
+     * @param expected the number of keys to size the table for
+     */
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(2 * expected, 8) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long key) {
+        for (int i = slot(key); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Adds a key; returns false if it was already present
+    boolean add(long key) {
+        int i = slot(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        used[i] = true;
+        keys[i] = key;
+        if (++size > (mask + 1) / 2) {
+            rehash();
+        }
+        return true;
+    }
+
+    // Removes a key; returns false if it was absent
+    boolean remove(long key) {
+        int i = slot(key);
+        while (used[i] && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (!used[i]) {
+            return false;
+        }
+        // Shift later entries of the probe run back so that no lookup stops at the hole
+        int hole = i;
+        for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                hole = j;
+            }
+        }
+        used[hole] = false;
+        size--;
+        return true;
+    }
+
+    // Calls action with every key, in table order
+    void forEach(LongConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                action.accept(keys[i]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(2 * oldKeys.length);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                add(oldKeys[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -2,6 +2,11 @@ import javax.swing.*;
 
 public class Main {
     public static void main(String[] args) {
+        MatchingStatsMonitor.register();
+        if (args.length > 0) {
+            // Any argument selects the headless batch mode, e.g. for CI or cron
+            System.exit(BatchSolver.run(args));
+        }
         SwingUtilities.invokeLater(GraphGUI::new);
     }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+/**
+ * {@link CompactGraph} whose arrays live outside the Java heap. They are either read straight from a
+ * memory-mapped {@link CompactGraphFile}, so opening it costs no parsing and no copying and the adjacency
+ * is served from the page cache, or held in direct memory built by {@link GraphLoader#loadOffHeap(java.nio.file.Path)}
+ * or {@link CompactGraph#toOffHeap()}. Either way the heap only holds a few buffer objects.
+ */
+final class MappedCompactGraph extends CompactGraph {
+    private final ChunkedIntBuffer ids;
+    private final ChunkedIntBuffer offsets;
+    private final ChunkedIntBuffer targets;
+
+    MappedCompactGraph(ChunkedIntBuffer ids, ChunkedIntBuffer offsets, ChunkedIntBuffer targets) {
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    @Override
+    public int getNumVertices() {
+        return ids.length();
+    }
+
+    @Override
+    public int getNumEdges() {
+        // The targets array may be longer than needed when repeated edges were squeezed out
+        return offsets.get(ids.length()) / 2;
+    }
+
+    @Override
+    public int getId(int index) {
+        return ids.get(index);
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        return offsets.get(v);
+    }
+
+    @Override
+    public int endEdge(int v) {
+        return offsets.get(v + 1);
+    }
+
+    @Override
+    public int target(int position) {
+        return targets.get(position);
+    }
+}
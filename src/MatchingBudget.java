@@ -0,0 +1,92 @@
+/**
+ * Limits for an anytime solve that may stop before the matching is maximum.
+ * An engine that runs under a budget checks it between augmenting-path searches and returns the best
+ * matching found so far together with a provable upper bound on the size of a maximum matching,
+ * so the caller knows how far from optimal an early answer can be.
+ * With an epsilon the engine also stops as soon as the matching is certified to be within a factor
+ * 1 - epsilon of the optimum. Zero disables a limit.
+ * The limits are targets rather than hard bounds: a search that has started runs to its end, and
+ * kernelization, the warm start and building the result map are never interrupted.
+ */
+public final class MatchingBudget {
+    // No limits: the engines run to a maximum matching
+    public static final MatchingBudget UNLIMITED = new MatchingBudget(0, 0, 0);
+
+    private static final int CLOCK_INTERVAL = 16; // searches between two reads of the clock
+
+    private final long timeLimitNanos;
+    private final long edgeLimit;
+    private final double epsilon;
+
+    /**
+     * Creates a budget.
+     * @param timeLimitNanos the wall-clock time allowed, or 0 for no limit
+     * @param edgeLimit the number of adjacency entries the searches may scan, or 0 for no limit
+     * @param epsilon stop once the matching is at least (1 - epsilon) times the optimum, or 0 to keep going
+     */
+    public MatchingBudget(long timeLimitNanos, long edgeLimit, double epsilon) {
+        if (timeLimitNanos < 0 || edgeLimit < 0 || !(epsilon >= 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Limits must not be negative and epsilon must be in [0, 1).");
+        }
+        this.timeLimitNanos = timeLimitNanos;
+        this.edgeLimit = edgeLimit;
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Creates a budget that only limits the time.
+     * @param timeLimitNanos the wall-clock time allowed
+     * @return the budget
+     */
+    public static MatchingBudget ofTime(long timeLimitNanos) {
+        return new MatchingBudget(timeLimitNanos, 0, 0);
+    }
+
+    public long getTimeLimitNanos() {
+        return timeLimitNanos;
+    }
+
+    public long getEdgeLimit() {
+        return edgeLimit;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public boolean isUnlimited() {
+        return timeLimitNanos == 0 && edgeLimit == 0 && epsilon == 0;
+    }
+
+    // The same budget with the time already spent elsewhere taken off, never reaching 0, which would mean no limit
+    MatchingBudget minus(long elapsedNanos) {
+        if (timeLimitNanos == 0) {
+            return this;
+        }
+        return new MatchingBudget(Math.max(1, timeLimitNanos - elapsedNanos), edgeLimit, epsilon);
+    }
+
+    /**
+     * Decides whether an engine must stop. The clock is only read every few searches.
+     * @param searches the searches started so far, used to space out the clock reads
+     * @param start the System.nanoTime() at which the engine started
+     * @param edgesScanned the adjacency entries scanned since the start
+     * @return whether the time or the work is used up
+     */
+    boolean isExhausted(long searches, long start, long edgesScanned) {
+        if (edgeLimit != 0 && edgesScanned >= edgeLimit) {
+            return true;
+        }
+        return timeLimitNanos != 0 && searches % CLOCK_INTERVAL == 0 && System.nanoTime() - start >= timeLimitNanos;
+    }
+
+    // Whether a matching of the given size is certified to be within 1 - epsilon of the optimum
+    boolean isCloseEnough(long size, long upperBound) {
+        return epsilon != 0 && size >= (1 - epsilon) * upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return "MatchingBudget{timeLimitNanos=" + timeLimitNanos + ", edgeLimit=" + edgeLimit + ", epsilon=" + epsilon + '}';
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.*;
+
+/**
+ * Cache of maximum matchings in front of a {@link MatchingSolver}, keyed by the {@link GraphFingerprint}
+ * of the edge set. A graph that was solved before, even if its edges were added in another order,
+ * costs one hashing pass over its edges plus building the returned map.
+ * Matchings are stored as packed pairs and evicted in least-recently-used order once either the
+ * number of entries or the total number of stored pairs exceeds its bound.
+ * Every pair of a hit is checked to be an edge of the queried graph, so a fingerprint collision costs a
+ * miss instead of returning the matching of another graph.
+ * All methods are thread-safe. Two threads that miss on the same graph at once both solve it.
+ */
+public class MatchingCache {
+    private final MatchingSolver solver;
+    private final int maxEntries;
+    private final long maxPairs;
+    private final LinkedHashMap<GraphFingerprint, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long pairs;
+    private long hits, misses, evictions;
+
+    /**
+     * Creates a cache that keeps up to 1024 matchings and 2^24 pairs, about 128 MB.
+     * @param solver the solver used on a miss
+     */
+    public MatchingCache(MatchingSolver solver) {
+        this(solver, 1024, 1L << 24);
+    }
+
+    /**
+     * Creates a cache with the given bounds.
+     * @param solver the solver used on a miss
+     * @param maxEntries the largest number of matchings kept
+     * @param maxPairs the largest total number of matched pairs kept, at 8 bytes each
+     */
+    public MatchingCache(MatchingSolver solver, int maxEntries, long maxPairs) {
+        if (maxEntries < 1 || maxPairs < 0) {
+            throw new IllegalArgumentException("maxEntries must be positive and maxPairs non-negative");
+        }
+        this.solver = solver;
+        this.maxEntries = maxEntries;
+        this.maxPairs = maxPairs;
+    }
+
+    /**
+     * Returns the cached matching of a graph with the same edges, or solves and caches it.
+     * @param graph the graph to match
+     * @return the matching; on a hit the engine is the one of the original solve and the stats are empty
+     */
+    public MatchingResult solve(Graph graph) {
+        long start = System.nanoTime();
+        GraphFingerprint key = GraphFingerprint.of(graph);
+        MatchingResult cached = lookup(key, start, graph::hasEdge);
+        return cached != null ? cached : store(key, solver.solve(graph));
+    }
+
+    /**
+     * Returns the cached matching of a snapshot with the same edges, or solves and caches it.
+     * @param graph the graph to match
+     * @return the matching; on a hit the engine is the one of the original solve and the stats are empty
+     */
+    public MatchingResult solve(CompactGraph graph) {
+        long start = System.nanoTime();
+        GraphFingerprint key = GraphFingerprint.of(graph);
+        MatchingResult cached = lookup(key, start, graph::hasEdge);
+        return cached != null ? cached : store(key, solver.solve(graph));
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // Matchings dropped to stay within the bounds
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    // Number of cached matchings
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Total number of matched pairs held by the cache
+    public synchronized long getPairs() {
+        return pairs;
+    }
+
+    // Drops every cached matching; the statistics are kept
+    public synchronized void clear() {
+        entries.clear();
+        pairs = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MatchingCache{entries=" + entries.size() + ", pairs=" + pairs + ", hits=" + hits
+                + ", misses=" + misses + ", evictions=" + evictions + '}';
+    }
+
+    // Returns the cached matching for the key if all of its pairs are edges, or null on a miss
+    MatchingResult lookup(GraphFingerprint key, long start, EdgeTest edges) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry != null && !entry.isMatchingOf(edges)) {
+            entry = null; // a colliding graph; the fresh solve replaces the entry
+        }
+        synchronized (this) {
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        Map<Integer, Integer> matching = new HashMap<>(4 * entry.pairs.length);
+        for (long pair : entry.pairs) {
+            int u = (int) (pair >> 32);
+            int v = (int) pair;
+            matching.put(u, v);
+            matching.put(v, u);
+        }
+        return new MatchingResult(matching, entry.engine, System.nanoTime() - start, WarmStart.NONE, 0, 0, null,
+                new MatchingStats(), entry.pairs.length);
+    }
+
+    private MatchingResult store(GraphFingerprint key, MatchingResult result) {
+        // A solve cut short by a budget is not worth remembering
+        if (!result.isMaximum() || result.size() > maxPairs) {
+            return result;
+        }
+        long[] packed = new long[result.size()];
+        int[] count = new int[1];
+        result.forEachPair((u, v) -> packed[count[0]++] = ((long) u << 32) | (v & 0xFFFFFFFFL));
+        synchronized (this) {
+            Entry old = entries.put(key, new Entry(packed, result.getEngine()));
+            pairs += packed.length - (old == null ? 0 : old.pairs.length);
+            // Access order puts the least recently used entry first
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries || pairs > maxPairs) {
+                pairs -= eldest.next().pairs.length;
+                eldest.remove();
+                evictions++;
+            }
+        }
+        return result;
+    }
+
+    // A cached matching as packed (u << 32 | v) pairs with u < v, in no particular order
+    private static final class Entry {
+        final long[] pairs;
+        final MatchingEngine engine;
+
+        Entry(long[] pairs, MatchingEngine engine) {
+            this.pairs = pairs;
+            this.engine = engine;
+        }
+
+        boolean isMatchingOf(EdgeTest edges) {
+            for (long pair : pairs) {
+                if (!edges.hasEdge((int) (pair >> 32), (int) pair)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Adjacency of the queried graph by vertex id
+    interface EdgeTest {
+        boolean hasEdge(int fromId, int toId);
+    }
+}
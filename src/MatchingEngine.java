@@ -0,0 +1,107 @@
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The maximum matching implementations available to callers.
+ * All engines return the matching keyed by vertex id with each pair stored in both directions.
+ */
+public enum MatchingEngine {
+    // The original search, one alternating tree per free vertex on the mutable graph; a snapshot is copied into one first
+    BLOSSOM {
+        @Override
+        public Map<Integer, Integer> findMaximumMatching(Graph graph) {
+            return new EdmondsBlossomAlgorithm(graph).findMaximumMatching();
+        }
+
+        @Override
+        public int[] solve(CompactGraph graph, int[] initialMate, MatchingStats stats) {
+            EdmondsBlossomAlgorithm solver = new EdmondsBlossomAlgorithm(Graph.of(graph));
+            if (initialMate != null) {
+                solver.setInitialMatching(graph.toMatching(initialMate));
+            }
+            int[] mate = new int[graph.getNumVertices()];
+            Arrays.fill(mate, -1);
+            for (Map.Entry<Integer, Integer> pair : solver.findMaximumMatching().entrySet()) {
+                mate[graph.indexOf(pair.getKey())] = graph.indexOf(pair.getValue());
+            }
+            if (stats != null) {
+                stats.add(solver.getStats());
+            }
+            return mate;
+        }
+    },
+    // The same search on an array-backed CSR snapshot
+    COMPACT_BLOSSOM {
+        @Override
+        public int[] solve(CompactGraph graph, int[] initialMate, MatchingStats stats) {
+            CompactBlossomMatching solver = new CompactBlossomMatching(graph);
+            int[] mate = solver.solve(initialMate);
+            if (stats != null) {
+                stats.add(solver.getStats());
+            }
+            return mate;
+        }
+    },
+    // Micali-Vazirani, phases of vertex-disjoint shortest augmenting paths in O(E * sqrt(V)) time
+    MICALI_VAZIRANI {
+        @Override
+        public int[] solve(CompactGraph graph, int[] initialMate, MatchingStats stats) {
+            MicaliVaziraniMatching solver = new MicaliVaziraniMatching(graph);
+            int[] mate = solver.solve(initialMate);
+            if (stats != null) {
+                stats.add(solver.getStats());
+            }
+            return mate;
+        }
+    },
+    // Hopcroft-Karp, for bipartite graphs only
+    HOPCROFT_KARP {
+        @Override
+        public int[] solve(CompactGraph graph, int[] initialMate, MatchingStats stats) {
+            HopcroftKarpMatching solver = new HopcroftKarpMatching(graph);
+            int[] mate = solver.solve(initialMate);
+            if (stats != null) {
+                stats.add(solver.getStats());
+            }
+            return mate;
+        }
+    };
+
+    /**
+     * Computes a maximum matching of the graph with this engine.
+     * @param graph the graph to match
+     * @return the matching with each pair stored in both directions
+     */
+    public Map<Integer, Integer> findMaximumMatching(Graph graph) {
+        CompactGraph compact = graph.freeze();
+        return compact.toMatching(solve(compact));
+    }
+
+    /**
+     * Computes a maximum matching of a snapshot with this engine.
+     * @param graph the graph to match
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve(CompactGraph graph) {
+        return solve(graph, null);
+    }
+
+    /**
+     * Computes a maximum matching of a snapshot with this engine, starting from a given matching.
+     * @param graph the graph to match
+     * @param initialMate the mate of every dense index, or null to start from the empty matching
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve(CompactGraph graph, int[] initialMate) {
+        return solve(graph, initialMate, null);
+    }
+
+    /**
+     * Computes a maximum matching of a snapshot with this engine and adds the work it did to the given statistics.
+     * @param graph the graph to match
+     * @param initialMate the mate of every dense index, or null to start from the empty matching
+     * @param stats the statistics to add to, or null
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public abstract int[] solve(CompactGraph graph, int[] initialMate, MatchingStats stats);
+}
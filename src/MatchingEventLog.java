@@ -0,0 +1,190 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Observer that records the steps of a search as a flat stream of ints, at full speed, so that the run
+ * can be replayed later at any pace (see {@link MatchingReplay}). Every event is its type followed by
+ * its payload of vertex ids:
+ * <pre>
+ * START     pairs, then the id pairs of the starting matching
+ * ROOT      root
+ * SCAN      vertex
+ * TREE_EDGE child, parent
+ * BLOSSOM   lca, size, then the vertices of the cycle
+ * PATH      length, then the vertices of the augmenting path from root to free vertex
+ * AUGMENTED (no payload) the matching was flipped along the last path
+ * END       (no payload) a search finished
+ * </pre>
+ */
+public class MatchingEventLog implements MatchingObserver {
+    public static final int START = 0;
+    public static final int ROOT = 1;
+    public static final int SCAN = 2;
+    public static final int TREE_EDGE = 3;
+    public static final int BLOSSOM = 4;
+    public static final int PATH = 5;
+    public static final int AUGMENTED = 6;
+    public static final int END = 7;
+
+    private static final int MAGIC = 0x424C4F47; // "BLOG"
+    private static final int VERSION = 1;
+
+    private int[] data = new int[1024];
+    private int length;
+    private int[] offsets = new int[256]; // start of every event in data
+    private int events;
+
+    // Number of recorded events
+    public int size() {
+        return events;
+    }
+
+    // Type of event i
+    public int type(int i) {
+        return data[offsets[i]];
+    }
+
+    // Payload value j of event i
+    public int arg(int i, int j) {
+        return data[offsets[i] + 1 + j];
+    }
+
+    // Number of payload values of event i
+    public int argCount(int i) {
+        int end = i + 1 < events ? offsets[i + 1] : length;
+        return end - offsets[i] - 1;
+    }
+
+    public void clear() {
+        length = 0;
+        events = 0;
+    }
+
+    @Override
+    public void onStart(Map<Integer, Integer> matching, Map<Integer, Integer> forest) {
+        begin(START);
+        put(matching.size() / 2);
+        for (Map.Entry<Integer, Integer> entry : matching.entrySet()) {
+            if (entry.getKey() < entry.getValue()) {
+                put(entry.getKey());
+                put(entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void onRootChosen(int root) {
+        begin(ROOT);
+        put(root);
+    }
+
+    @Override
+    public void onVertexScanned(int vertex, Map<Integer, Integer> forest) {
+        begin(SCAN);
+        put(vertex);
+    }
+
+    @Override
+    public void onTreeEdge(int child, int parent) {
+        begin(TREE_EDGE);
+        put(child);
+        put(parent);
+    }
+
+    @Override
+    public void onAugmentingPath(List<Integer> path) {
+        begin(PATH);
+        put(path.size());
+        for (int v : path) {
+            put(v);
+        }
+    }
+
+    @Override
+    public void onAugmented(List<Integer> path) {
+        begin(AUGMENTED);
+    }
+
+    @Override
+    public void onBlossomShrunk(int lca, List<Integer> blossom) {
+        begin(BLOSSOM);
+        put(lca);
+        put(blossom.size());
+        for (int v : blossom) {
+            put(v);
+        }
+    }
+
+    @Override
+    public void onIteration(Map<Integer, Integer> matching, Map<Integer, Integer> forest) {
+        begin(END);
+    }
+
+    /**
+     * Saves the log in a small binary format: a header followed by the raw stream.
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(events);
+            out.writeInt(length);
+            for (int i = 0; i < events; i++) {
+                out.writeInt(offsets[i]);
+            }
+            for (int i = 0; i < length; i++) {
+                out.writeInt(data[i]);
+            }
+        }
+    }
+
+    /**
+     * Loads a log saved by {@link #writeTo(Path)}.
+     * @param path the file to read
+     * @return the log
+     * @throws IOException if the file cannot be read or is not an event log
+     */
+    public static MatchingEventLog readFrom(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(path + " is not a matching event log.");
+            }
+            MatchingEventLog log = new MatchingEventLog();
+            log.events = in.readInt();
+            log.length = in.readInt();
+            if (log.events < 0 || log.length < log.events) {
+                throw new IOException("Corrupt event log header in " + path + ".");
+            }
+            log.offsets = new int[Math.max(log.events, 1)];
+            for (int i = 0; i < log.events; i++) {
+                log.offsets[i] = in.readInt();
+            }
+            log.data = new int[Math.max(log.length, 1)];
+            for (int i = 0; i < log.length; i++) {
+                log.data[i] = in.readInt();
+            }
+            return log;
+        }
+    }
+
+    private void begin(int type) {
+        if (events == offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+        }
+        offsets[events++] = length;
+        put(type);
+    }
+
+    private void put(int value) {
+        if (length == data.length) {
+            data = Arrays.copyOf(data, 2 * data.length);
+        }
+        data[length++] = value;
+    }
+}
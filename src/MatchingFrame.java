@@ -0,0 +1,179 @@
+import java.util.*;
+
+/**
+ * Immutable picture of a matching search at one moment, as shown by {@link GraphView}.
+ * Everything is copied into primitive arrays when the frame is built, so a solver thread can hand
+ * frames to the event dispatch thread without sharing any of the maps it keeps mutating.
+ * The arrays are never modified after construction and must not be modified by readers.
+ */
+final class MatchingFrame {
+    static final MatchingFrame EMPTY = of(Collections.emptyMap(), Collections.emptyMap(), null,
+            Collections.emptyMap(), null, -1, -1);
+
+    private final long[] matching;   // edgeKey of every matched pair, sorted
+    private final long[] forest;     // (child << 32) | parent of every tree edge, sorted
+    private final int[] path;        // augmenting path being shown, or null
+    private final int[] blossomBases;
+    private final int[][] blossoms;  // vertices of each shrunk blossom, in the order of blossomBases
+    private final int[] highlighted; // odd cycle found but not shrunk yet, or null
+    private final int root;
+    private final int current;
+
+    private MatchingFrame(long[] matching, long[] forest, int[] path, int[] blossomBases, int[][] blossoms,
+                          int[] highlighted, int root, int current) {
+        this.matching = matching;
+        this.forest = forest;
+        this.path = path;
+        this.blossomBases = blossomBases;
+        this.blossoms = blossoms;
+        this.highlighted = highlighted;
+        this.root = root;
+        this.current = current;
+    }
+
+    /**
+     * Copies the state of a search into a new frame. The arguments are only read during the call.
+     * @param matching the matching with each pair stored in both directions
+     * @param forest the parent of every vertex of the alternating forest
+     * @param path the augmenting path to highlight, or null
+     * @param blossoms the vertices of every shrunk blossom, keyed by its base
+     * @param highlighted the odd cycle to highlight, or null
+     * @param root the root of the current tree, or -1
+     * @param current the vertex being scanned, or -1
+     * @return the frame
+     */
+    static MatchingFrame of(Map<Integer, Integer> matching, Map<Integer, Integer> forest, List<Integer> path,
+                            Map<Integer, List<Integer>> blossoms, List<Integer> highlighted, int root, int current) {
+        long[] pairs = new long[matching.size()];
+        int count = 0;
+        for (Map.Entry<Integer, Integer> entry : matching.entrySet()) {
+            if (entry.getKey() < entry.getValue()) {
+                pairs[count++] = edgeKey(entry.getKey(), entry.getValue());
+            }
+        }
+        pairs = Arrays.copyOf(pairs, count);
+        Arrays.sort(pairs);
+
+        long[] tree = new long[forest.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : forest.entrySet()) {
+            tree[i++] = pack(entry.getKey(), entry.getValue());
+        }
+        Arrays.sort(tree);
+
+        int[] bases = new int[blossoms.size()];
+        int[][] cycles = new int[blossoms.size()][];
+        i = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : blossoms.entrySet()) {
+            bases[i] = entry.getKey();
+            cycles[i++] = toArray(entry.getValue());
+        }
+        return new MatchingFrame(pairs, tree, toArray(path), bases, cycles, toArray(highlighted), root, current);
+    }
+
+    int getNumMatched() {
+        return matching.length;
+    }
+
+    int getMatchedU(int i) {
+        return high(matching[i]);
+    }
+
+    int getMatchedV(int i) {
+        return low(matching[i]);
+    }
+
+    int getNumTreeEdges() {
+        return forest.length;
+    }
+
+    int getChild(int i) {
+        return high(forest[i]);
+    }
+
+    int getParent(int i) {
+        return low(forest[i]);
+    }
+
+    // Whether the vertex has a parent in the forest, by binary search over the sorted tree edges
+    boolean isInForest(int vertex) {
+        int from = 0, to = forest.length;
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            int child = high(forest[middle]);
+            if (child < vertex) {
+                from = middle + 1;
+            } else if (child > vertex) {
+                to = middle;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int[] getPath() {
+        return path;
+    }
+
+    int getNumBlossoms() {
+        return blossomBases.length;
+    }
+
+    int getBlossomBase(int i) {
+        return blossomBases[i];
+    }
+
+    int[] getBlossom(int i) {
+        return blossoms[i];
+    }
+
+    int[] getHighlighted() {
+        return highlighted;
+    }
+
+    int getRoot() {
+        return root;
+    }
+
+    int getCurrent() {
+        return current;
+    }
+
+    // Sorted keys of the matched pairs, shared with the caller
+    long[] matchingKeys() {
+        return matching;
+    }
+
+    // Sorted keys of the tree edges, shared with the caller
+    long[] forestKeys() {
+        return forest;
+    }
+
+    static int high(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int low(long key) {
+        return (int) key;
+    }
+
+    private static long edgeKey(int u, int v) {
+        return pack(Math.min(u, v), Math.max(u, v));
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        if (list == null) {
+            return null;
+        }
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,340 @@
+import java.util.*;
+
+/**
+ * Exact preprocessing that shrinks a graph before the blossom search.
+ * Three reductions are applied until none is left, lowest degree first:
+ * <ul>
+ *   <li>an isolated vertex is dropped;</li>
+ *   <li>a vertex of degree 1 is matched to its only neighbor and both are removed;</li>
+ *   <li>a vertex v of degree 2 with neighbors u and w is folded: v, u and w are replaced by one new
+ *       vertex adjacent to every other neighbor of u and w. Some maximum matching uses (v, u) or (v, w),
+ *       so the maximum shrinks by exactly one.</li>
+ * </ul>
+ * Whatever survives is the kernel. A maximum matching of the kernel is lifted back by undoing the folds
+ * in reverse order: if the folded vertex is matched to y, then y is matched to u or w, whichever it was
+ * adjacent to, and v takes the other one; otherwise v is matched to u.
+ */
+public class MatchingKernel {
+    private static final int NONE = -1;
+
+    private final CompactGraph graph;
+    private final int n;
+    private int[][] adjacency;      // may hold edges that were removed later; live tells them apart
+    private int[] adjacencySize;
+    private int[] degree;           // number of live edges
+    private boolean[] alive;
+    private final LongHashSet live; // edgeKey of every edge still in the graph
+    private final LongHashSet fromU; // edgeKey(x, z) when z joined the folded vertex x through u
+    private int[] forcedMate;
+    private int vertices;           // original vertices plus folded vertices created so far
+    private int[] foldX = new int[16], foldV = new int[16], foldU = new int[16], foldW = new int[16];
+    private int folds;
+    private int forcedPairs;
+    private int isolated;
+    private final int originalEdges;
+    private final CompactGraph kernel;
+
+    /**
+     * Reduces a snapshot of the graph.
+     * @param graph the graph to reduce
+     */
+    public MatchingKernel(Graph graph) {
+        this(graph.freeze());
+    }
+
+    /**
+     * Reduces a snapshot.
+     * @param graph the graph to reduce
+     */
+    public MatchingKernel(CompactGraph graph) {
+        this.graph = graph;
+        this.n = graph.getNumVertices();
+        int capacity = n + n / 2 + 1; // every fold removes three vertices and adds one
+        this.adjacency = new int[capacity][];
+        this.adjacencySize = new int[capacity];
+        this.degree = new int[capacity];
+        this.alive = new boolean[capacity];
+        this.forcedMate = new int[capacity];
+        Arrays.fill(forcedMate, NONE);
+        this.live = new LongHashSet(graph.getNumEdges());
+        this.fromU = new LongHashSet(16);
+
+        int edges = 0;
+        for (int v = 0; v < n; v++) {
+            adjacency[v] = new int[Math.max(graph.degree(v), 2)];
+            alive[v] = true;
+        }
+        for (int v = 0; v < n; v++) {
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                int u = graph.target(e);
+                if (v < u && live.add(edgeKey(v, u))) {
+                    append(v, u);
+                    append(u, v);
+                    degree[v]++;
+                    degree[u]++;
+                    edges++;
+                }
+            }
+        }
+        this.originalEdges = edges;
+        this.vertices = n;
+        reduce();
+        this.kernel = buildKernel();
+    }
+
+    /**
+     * The reduced graph. Its vertex ids are internal: original dense indices for surviving vertices
+     * and larger numbers for folded vertices, so a matching of it must be passed to {@link #lift(Map)}.
+     */
+    public CompactGraph getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Turns a maximum matching of the kernel into a maximum matching of the original graph.
+     * @param kernelMatching the matching keyed by kernel vertex id, with each pair stored in both directions
+     * @return the matching keyed by original vertex id, with each pair stored in both directions
+     */
+    public Map<Integer, Integer> lift(Map<Integer, Integer> kernelMatching) {
+        int[] mate = forcedMate.clone();
+        for (Map.Entry<Integer, Integer> entry : kernelMatching.entrySet()) {
+            mate[entry.getKey()] = entry.getValue();
+        }
+        for (int i = folds - 1; i >= 0; i--) {
+            int x = foldX[i], v = foldV[i], u = foldU[i], w = foldW[i];
+            int y = mate[x];
+            if (y == NONE) {
+                pair(mate, v, u);
+            } else if (fromU.contains(edgeKey(x, y))) {
+                pair(mate, u, y);
+                pair(mate, v, w);
+            } else {
+                pair(mate, w, y);
+                pair(mate, v, u);
+            }
+        }
+        Map<Integer, Integer> matching = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (mate[v] != NONE) {
+                matching.put(graph.getId(v), graph.getId(mate[v]));
+            }
+        }
+        return matching;
+    }
+
+    public int getOriginalVertices() {
+        return n;
+    }
+
+    // Number of distinct edges of the original graph, ignoring self-loops
+    public int getOriginalEdges() {
+        return originalEdges;
+    }
+
+    public int getKernelVertices() {
+        return kernel.getNumVertices();
+    }
+
+    public int getKernelEdges() {
+        return kernel.getNumEdges();
+    }
+
+    // Pairs matched by the degree-1 rule
+    public int getForcedPairs() {
+        return forcedPairs;
+    }
+
+    // Degree-2 vertices folded, each worth one pair of the final matching
+    public int getFolds() {
+        return folds;
+    }
+
+    public int getIsolatedVertices() {
+        return isolated;
+    }
+
+    @Override
+    public String toString() {
+        return "MatchingKernel{V " + n + " -> " + getKernelVertices() + ", E " + originalEdges + " -> " + getKernelEdges()
+                + ", forcedPairs=" + forcedPairs + ", folds=" + folds + ", isolated=" + isolated + '}';
+    }
+
+    private void reduce() {
+        IntStack low = new IntStack();  // candidates of degree 0 or 1
+        IntStack two = new IntStack();  // candidates of degree 2
+        for (int v = n - 1; v >= 0; v--) {
+            enqueue(v, low, two);
+        }
+        while (true) {
+            int v;
+            if (low.size > 0) {
+                v = low.pop();
+            } else if (two.size > 0) {
+                v = two.pop();
+            } else {
+                break;
+            }
+            if (!alive[v]) continue;
+            if (degree[v] == 0) {
+                alive[v] = false;
+                isolated++;
+            } else if (degree[v] == 1) {
+                int u = liveNeighbor(v, NONE);
+                forcedMate[v] = u;
+                forcedMate[u] = v;
+                forcedPairs++;
+                remove(v, low, two);
+                remove(u, low, two);
+            } else if (degree[v] == 2) {
+                int u = liveNeighbor(v, NONE);
+                int w = liveNeighbor(v, u);
+                fold(v, u, w, low, two);
+            }
+        }
+    }
+
+    // Replaces v, u and w by a new vertex adjacent to the other neighbors of u and w
+    private void fold(int v, int u, int w, IntStack low, IntStack two) {
+        int x = vertices++;
+        adjacency[x] = new int[Math.max(degree[u] + degree[w], 2)];
+        alive[x] = true;
+        if (folds == foldX.length) {
+            int length = 2 * folds;
+            foldX = Arrays.copyOf(foldX, length);
+            foldV = Arrays.copyOf(foldV, length);
+            foldU = Arrays.copyOf(foldU, length);
+            foldW = Arrays.copyOf(foldW, length);
+        }
+        foldX[folds] = x;
+        foldV[folds] = v;
+        foldU[folds] = u;
+        foldW[folds] = w;
+        folds++;
+
+        live.remove(edgeKey(v, u));
+        live.remove(edgeKey(v, w));
+        alive[v] = false;
+        alive[u] = false;
+        alive[w] = false;
+        for (int i = 0; i < adjacencySize[u]; i++) {
+            int z = adjacency[u][i];
+            if (z != w && live.remove(edgeKey(u, z))) {
+                // z swaps u for x, so its degree does not change
+                fromU.add(edgeKey(x, z));
+                live.add(edgeKey(x, z));
+                append(x, z);
+                append(z, x);
+                degree[x]++;
+            }
+        }
+        live.remove(edgeKey(u, w));
+        for (int i = 0; i < adjacencySize[w]; i++) {
+            int z = adjacency[w][i];
+            if (live.remove(edgeKey(w, z))) {
+                if (live.add(edgeKey(x, z))) {
+                    append(x, z);
+                    append(z, x);
+                    degree[x]++;
+                } else {
+                    // z was adjacent to both u and w and keeps a single edge to x
+                    degree[z]--;
+                    enqueue(z, low, two);
+                }
+            }
+        }
+        enqueue(x, low, two);
+    }
+
+    // Removes a vertex and all its live edges
+    private void remove(int v, IntStack low, IntStack two) {
+        alive[v] = false;
+        for (int i = 0; i < adjacencySize[v]; i++) {
+            int z = adjacency[v][i];
+            if (live.remove(edgeKey(v, z))) {
+                degree[z]--;
+                enqueue(z, low, two);
+            }
+        }
+    }
+
+    // First neighbor of v joined by a live edge, other than skip
+    private int liveNeighbor(int v, int skip) {
+        for (int i = 0; i < adjacencySize[v]; i++) {
+            int z = adjacency[v][i];
+            if (z != skip && live.contains(edgeKey(v, z))) {
+                return z;
+            }
+        }
+        throw new IllegalStateException("Vertex " + v + " has fewer live neighbors than its degree.");
+    }
+
+    private void enqueue(int v, IntStack low, IntStack two) {
+        if (degree[v] <= 1) {
+            low.push(v);
+        } else if (degree[v] == 2) {
+            two.push(v);
+        }
+    }
+
+    private void append(int v, int z) {
+        if (adjacencySize[v] == adjacency[v].length) {
+            adjacency[v] = Arrays.copyOf(adjacency[v], 2 * adjacency[v].length);
+        }
+        adjacency[v][adjacencySize[v]++] = z;
+    }
+
+    private CompactGraph buildKernel() {
+        int[] index = new int[vertices];
+        int count = 0;
+        for (int v = 0; v < vertices; v++) {
+            index[v] = alive[v] ? count++ : NONE;
+        }
+        int[] ids = new int[count];
+        int[] endpoints = new int[2 * live.size()];
+        int m = 0;
+        for (int v = 0; v < vertices; v++) {
+            if (!alive[v]) continue;
+            ids[index[v]] = v;
+            for (int i = 0; i < adjacencySize[v]; i++) {
+                int z = adjacency[v][i];
+                if (v < z && live.contains(edgeKey(v, z))) {
+                    endpoints[2 * m] = index[v];
+                    endpoints[2 * m + 1] = index[z];
+                    m++;
+                }
+            }
+        }
+        // The working arrays are not needed after the kernel is built
+        adjacency = null;
+        adjacencySize = null;
+        degree = null;
+        alive = null;
+        return CompactGraph.fromEdges(ids, endpoints, m);
+    }
+
+    private static void pair(int[] mate, int a, int b) {
+        mate[a] = b;
+        mate[b] = a;
+    }
+
+    private static long edgeKey(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | (Math.max(u, v) & 0xFFFFFFFFL);
+    }
+
+    // Growable stack of ints
+    private static final class IntStack {
+        private int[] values = new int[16];
+        private int size;
+
+        void push(int v) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = v;
+        }
+
+        int pop() {
+            return values[--size];
+        }
+    }
+}
@@ -0,0 +1,44 @@
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives the individual steps of a matching search as they happen.
+ * Every callback is a no-op by default, so an observer only overrides the steps it cares about.
+ */
+public interface MatchingObserver {
+    /**
+     * Observer that ignores every step. The algorithm recognises it and skips
+     * building the arguments for the callbacks altogether.
+     */
+    MatchingObserver NONE = new MatchingObserver() {};
+
+    // Called once before the first search, with the (empty) matching and forest
+    default void onStart(Map<Integer, Integer> matching, Map<Integer, Integer> forest) {}
+
+    // Called when a new alternating tree is grown from a free vertex
+    default void onRootChosen(int root) {}
+
+    // Called when a vertex is taken from the queue and its neighbors are about to be scanned
+    default void onVertexScanned(int vertex, Map<Integer, Integer> forest) {}
+
+    // Called for each of the two edges that extend the alternating tree, before onTreeGrown
+    default void onTreeEdge(int child, int parent) {}
+
+    // Called after the alternating tree has been extended by a vertex
+    default void onTreeGrown(Map<Integer, Integer> forest) {}
+
+    // Called when an augmenting path has been found, before the matching is flipped along it
+    default void onAugmentingPath(List<Integer> path) {}
+
+    // Called after the matching has been flipped along the given path
+    default void onAugmented(List<Integer> path) {}
+
+    // Called when an odd cycle is found, with the lowest common ancestor that becomes its base
+    default void onBlossomFound(int lca, List<Integer> blossom) {}
+
+    // Called after onBlossomFound, once the odd cycle is treated as a single vertex by the search
+    default void onBlossomShrunk(int lca, List<Integer> blossom) {}
+
+    // Called after every search of the main loop, successful or not
+    default void onIteration(Map<Integer, Integer> matching, Map<Integer, Integer> forest) {}
+}
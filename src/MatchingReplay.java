@@ -0,0 +1,129 @@
+import java.util.*;
+
+/**
+ * Rebuilds the state of a recorded search at any step of a {@link MatchingEventLog} and shows it on a {@link GraphView}.
+ * Moving forward applies the next events; moving backward replays the log from the start, which takes
+ * a few milliseconds even for runs of a hundred thousand steps.
+ */
+class MatchingReplay {
+    private final MatchingEventLog log;
+    private int position; // number of events applied
+    private final Map<Integer, Integer> matching = new HashMap<>();
+    private final Map<Integer, Integer> forest = new HashMap<>();
+    private final Map<Integer, List<Integer>> blossoms = new LinkedHashMap<>();
+    private List<Integer> lastBlossom;
+    private List<Integer> path;
+    private int root = -1;
+    private int current = -1;
+
+    MatchingReplay(MatchingEventLog log) {
+        this.log = log;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    int size() {
+        return log.size();
+    }
+
+    // Applies the next event; returns false at the end of the log
+    boolean step() {
+        if (position == log.size()) {
+            return false;
+        }
+        apply(position++);
+        return true;
+    }
+
+    // Moves to the state right after the first target events
+    void seek(int target) {
+        target = Math.max(0, Math.min(target, log.size()));
+        if (target < position) {
+            reset();
+        }
+        while (position < target) {
+            apply(position++);
+        }
+    }
+
+    // Snapshot of the current state
+    MatchingFrame frame() {
+        return MatchingFrame.of(matching, forest, path, blossoms, lastBlossom, root, current);
+    }
+
+    // Shows the current state on the view; must be called on the event dispatch thread
+    void showOn(GraphView view) {
+        view.showFrame(frame());
+    }
+
+    private void reset() {
+        position = 0;
+        matching.clear();
+        clearSearch();
+    }
+
+    private void clearSearch() {
+        forest.clear();
+        blossoms.clear();
+        lastBlossom = null;
+        path = null;
+        root = -1;
+        current = -1;
+    }
+
+    private void apply(int i) {
+        lastBlossom = null;
+        switch (log.type(i)) {
+            case MatchingEventLog.START:
+                matching.clear();
+                for (int j = 0; j < log.arg(i, 0); j++) {
+                    match(log.arg(i, 1 + 2 * j), log.arg(i, 2 + 2 * j));
+                }
+                break;
+            case MatchingEventLog.ROOT:
+                clearSearch();
+                root = log.arg(i, 0);
+                break;
+            case MatchingEventLog.SCAN:
+                current = log.arg(i, 0);
+                break;
+            case MatchingEventLog.TREE_EDGE:
+                forest.put(log.arg(i, 0), log.arg(i, 1));
+                break;
+            case MatchingEventLog.BLOSSOM:
+                lastBlossom = vertices(i, 2, log.arg(i, 1));
+                blossoms.put(log.arg(i, 0), lastBlossom);
+                break;
+            case MatchingEventLog.PATH:
+                path = vertices(i, 1, log.arg(i, 0));
+                break;
+            case MatchingEventLog.AUGMENTED:
+                // The path alternates from the free root, so after the flip it is matched in consecutive pairs
+                for (int j = 0; j + 1 < path.size(); j += 2) {
+                    match(path.get(j), path.get(j + 1));
+                }
+                path = null;
+                break;
+            case MatchingEventLog.END:
+                clearSearch();
+                break;
+            default:
+                throw new IllegalStateException("Unknown event type " + log.type(i) + " at step " + i + ".");
+        }
+    }
+
+    private List<Integer> vertices(int i, int first, int count) {
+        List<Integer> list = new ArrayList<>(count);
+        for (int j = 0; j < count; j++) {
+            list.add(log.arg(i, first + j));
+        }
+        return list;
+    }
+
+    private void match(int u, int v) {
+        matching.put(u, v);
+        matching.put(v, u);
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.Map;
+
+/**
+ * Outcome of a {@link MatchingSolver} run: the matching together with how it was obtained.
+ */
+public class MatchingResult {
+    private Map<Integer, Integer> matching;  // built on first use when the result holds a mate array
+    private final CompactGraph graph;
+    private final int[] mate;
+    private final int size;
+    private final MatchingEngine engine;
+    private final long elapsedNanos;
+    private final WarmStart warmStart;
+    private final int warmStartSize;
+    private final long warmStartNanos;
+    private final MatchingKernel kernel;
+    private final MatchingStats stats;
+    private final long upperBound;
+
+    /**
+     * Creates a result from a map of pairs. Results are only built by {@link MatchingSolver} and {@link MatchingCache}.
+     * @param matching the matching with each pair stored in both directions
+     * @param kernel the kernel the matching was lifted through, or null
+     * @param upperBound the proven bound on the optimum, the matching size if it is maximum
+     */
+    MatchingResult(Map<Integer, Integer> matching, MatchingEngine engine, long elapsedNanos,
+                   WarmStart warmStart, int warmStartSize, long warmStartNanos, MatchingKernel kernel, MatchingStats stats,
+                   long upperBound) {
+        this.matching = matching;
+        this.graph = null;
+        this.mate = null;
+        this.size = matching.size() / 2;
+        this.engine = engine;
+        this.elapsedNanos = elapsedNanos;
+        this.warmStart = warmStart;
+        this.warmStartSize = warmStartSize;
+        this.warmStartNanos = warmStartNanos;
+        this.kernel = kernel;
+        this.stats = stats;
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Creates a result from the mate array of a snapshot. The map of pairs is only built if
+     * {@link #getMatching()} is called, so a large graph held off the heap does not need millions of boxed entries.
+     */
+    MatchingResult(CompactGraph graph, int[] mate, MatchingEngine engine, long elapsedNanos, WarmStart warmStart,
+                   int warmStartSize, long warmStartNanos, MatchingStats stats, long upperBound) {
+        this.graph = graph;
+        this.mate = mate;
+        int matched = 0;
+        for (int m : mate) {
+            if (m != -1) {
+                matched++;
+            }
+        }
+        this.size = matched / 2;
+        this.engine = engine;
+        this.elapsedNanos = elapsedNanos;
+        this.warmStart = warmStart;
+        this.warmStartSize = warmStartSize;
+        this.warmStartNanos = warmStartNanos;
+        this.kernel = null;
+        this.stats = stats;
+        this.upperBound = upperBound;
+    }
+
+    // The matching with each pair stored in both directions
+    public synchronized Map<Integer, Integer> getMatching() {
+        if (matching == null) {
+            matching = graph.toMatching(mate);
+        }
+        return matching;
+    }
+
+    // Number of matched pairs
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls action with every matched pair once, smaller id first, without building the map of pairs.
+     * @param action receives the two vertex ids of each pair
+     */
+    public void forEachPair(PairConsumer action) {
+        if (mate == null) {
+            for (Map.Entry<Integer, Integer> pair : matching.entrySet()) {
+                if (pair.getKey() < pair.getValue()) {
+                    action.accept(pair.getKey(), pair.getValue());
+                }
+            }
+            return;
+        }
+        for (int v = 0; v < mate.length; v++) {
+            // Ids ascend with the dense index, so v < mate[v] puts the smaller id first
+            if (mate[v] > v) {
+                action.accept(graph.getId(v), graph.getId(mate[v]));
+            }
+        }
+    }
+
+    /**
+     * Receives one matched pair.
+     */
+    public interface PairConsumer {
+        void accept(int u, int v);
+    }
+
+    // The engine that actually computed the matching
+    public MatchingEngine getEngine() {
+        return engine;
+    }
+
+    // Wall time of the whole solve, including any preprocessing
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // The heuristic that built the starting matching
+    public WarmStart getWarmStart() {
+        return warmStart;
+    }
+
+    // Number of pairs in the starting matching, before any augmentation
+    public int getWarmStartSize() {
+        return warmStartSize;
+    }
+
+    // Time spent building the starting matching, included in the elapsed time
+    public long getWarmStartNanos() {
+        return warmStartNanos;
+    }
+
+    // The reduction applied before the search, with its before and after sizes, or null if there was none
+    public MatchingKernel getKernel() {
+        return kernel;
+    }
+
+    // Work counters and phase timings of the solve
+    public MatchingStats getStats() {
+        return stats;
+    }
+
+    // No matching of the graph has more pairs than this; equal to size() when the solve ran to completion
+    public long getUpperBound() {
+        return upperBound;
+    }
+
+    // Whether the matching is proven to be maximum, which is always the case unless a budget stopped the solve
+    public boolean isMaximum() {
+        return size() >= upperBound;
+    }
+
+    @Override
+    public String toString() {
+        return "MatchingResult{" + "size=" + size() + ", engine=" + engine + ", elapsedNanos=" + elapsedNanos
+                + ", warmStart=" + warmStart + ", warmStartSize=" + warmStartSize + ", warmStartNanos=" + warmStartNanos
+                + (isMaximum() ? "" : ", upperBound=" + upperBound) + (kernel == null ? "" : ", kernel=" + kernel) + '}';
+    }
+}
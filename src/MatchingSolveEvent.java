@@ -0,0 +1,70 @@
+import jdk.jfr.*;
+
+/**
+ * Flight Recorder event committed by {@link MatchingSolver} after every solve.
+ * Its duration covers the whole solve; the fields break it down into phases and work counters.
+ * While no recording enables the event, building it is skipped, so it costs nothing in production.
+ */
+@Name("blossom.MatchingSolve")
+@Label("Matching Solve")
+@Category("Blossom")
+@Description("A maximum matching computed by MatchingSolver")
+@StackTrace(false)
+class MatchingSolveEvent extends Event {
+    @Label("Engine")
+    String engine;
+
+    @Label("Vertices")
+    int vertices;
+
+    @Label("Edges")
+    int edges;
+
+    @Label("Matching Size")
+    int matchingSize;
+
+    @Label("Upper Bound")
+    @Description("Proven bound on the optimum; larger than the matching size only if a budget stopped the solve")
+    long upperBound;
+
+    @Label("Searches")
+    long searches;
+
+    @Label("Augmentations")
+    long augmentations;
+
+    @Label("Failed Searches")
+    long failedSearches;
+
+    @Label("Vertices Dequeued")
+    long verticesDequeued;
+
+    @Label("Edges Scanned")
+    long edgesScanned;
+
+    @Label("Blossoms Shrunk")
+    long blossomsShrunk;
+
+    @Label("LCA Steps")
+    long lcaSteps;
+
+    @Label("Phases")
+    @Description("Phases run by Hopcroft-Karp and Micali-Vazirani, zero for the single-root blossom searches")
+    long phases;
+
+    @Label("Kernel Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long kernelNanos;
+
+    @Label("Warm Start Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long warmStartNanos;
+
+    @Label("Search Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long searchNanos;
+
+    @Label("Lift Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long liftNanos;
+}
@@ -0,0 +1,228 @@
+import java.util.Map;
+
+/**
+ * Headless entry point for computing maximum matchings.
+ * Unless an engine is forced, the solver first two-colors the graph in linear time and uses
+ * Hopcroft-Karp on bipartite graphs and Micali-Vazirani otherwise, both in O(E * sqrt(V)) time.
+ */
+public class MatchingSolver {
+    private final MatchingEngine engine;
+    private WarmStart warmStart = WarmStart.NONE;
+    private boolean parallel;
+    private boolean kernelization;
+    private MatchingBudget budget = MatchingBudget.UNLIMITED;
+
+    /**
+     * Creates a solver that picks the engine from the structure of each graph.
+     */
+    public MatchingSolver() {
+        this(null);
+    }
+
+    /**
+     * Creates a solver that always uses the given engine.
+     * @param engine the engine to use, or null to pick one automatically
+     */
+    public MatchingSolver(MatchingEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Selects the heuristic that builds the starting matching. Defaults to {@link WarmStart#NONE}.
+     * @param warmStart the warm-start heuristic
+     */
+    public void setWarmStart(WarmStart warmStart) {
+        this.warmStart = warmStart;
+    }
+
+    /**
+     * Solves every connected component as a separate task on the common fork-join pool.
+     * Ignored by {@link MatchingEngine#BLOSSOM}, which runs on the mutable graph. Defaults to false.
+     * @param parallel whether to solve the components in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Shrinks the graph with the exact degree-0, degree-1 and degree-2 reductions of {@link MatchingKernel}
+     * before the search, and lifts the kernel's matching back afterwards. Defaults to false.
+     * @param kernelization whether to reduce the graph first
+     */
+    public void setKernelization(boolean kernelization) {
+        this.kernelization = kernelization;
+    }
+
+    /**
+     * Turns every solve into an anytime solve that stops when the budget runs out and returns the best
+     * matching found so far, with {@link MatchingResult#getUpperBound()} bounding the optimum.
+     * The time limit covers the whole solve, kernelization and warm start included.
+     * Every engine can stop early, so a forced engine is kept; a limited solve without one picks the engine
+     * as an unlimited solve does. {@link #setParallel(boolean)} is ignored.
+     * Defaults to {@link MatchingBudget#UNLIMITED}.
+     * @param budget the limits of every solve
+     */
+    public void setBudget(MatchingBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Computes a maximum matching of the graph.
+     * @param graph the graph to match
+     * @return the matching and the engine that produced it
+     */
+    public MatchingResult solve(Graph graph) {
+        return solve(graph, null);
+    }
+
+    /**
+     * Computes a maximum matching of a snapshot, such as one read by {@link GraphLoader}, without
+     * building a {@link Graph} first. Only {@link MatchingEngine#BLOSSOM} converts it back.
+     * @param graph the graph to match
+     * @return the matching and the engine that produced it
+     */
+    public MatchingResult solve(CompactGraph graph) {
+        return solve(null, graph);
+    }
+
+    // Exactly one of graph and snapshot is given; the other form is only built if an engine needs it
+    private MatchingResult solve(Graph graph, CompactGraph snapshot) {
+        MatchingSolveEvent event = new MatchingSolveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        MatchingKernel kernel = null;
+        if (kernelization) {
+            kernel = snapshot != null ? new MatchingKernel(snapshot) : new MatchingKernel(graph);
+        }
+        long kernelNanos = kernel == null ? 0 : System.nanoTime() - start;
+        MatchingResult result;
+        if (engine == MatchingEngine.BLOSSOM) {
+            Graph mutable = kernel != null ? Graph.of(kernel.getKernel()) : graph != null ? graph : Graph.of(snapshot);
+            EdmondsBlossomAlgorithm eba = new EdmondsBlossomAlgorithm(mutable);
+            eba.setWarmStart(warmStart);
+            eba.setBudget(budget.minus(System.nanoTime() - start));
+            Map<Integer, Integer> matching = eba.findMaximumMatching();
+            MatchingStats stats = eba.getStats();
+            result = finish(matching, eba.getUpperBound(), kernel, kernelNanos, stats, engine, start, eba.getWarmStartSize());
+        } else {
+            CompactGraph compact = kernel != null ? kernel.getKernel() : snapshot != null ? snapshot : graph.freeze();
+            MatchingStats stats = new MatchingStats();
+            long warmStartStart = System.nanoTime();
+            int[] initialMate = warmStart.initialMatching(compact);
+            long warmStartNanos = System.nanoTime() - warmStartStart;
+            int warmStartSize = countPairs(initialMate);
+
+            MatchingEngine used = engine;
+            int[] mate;
+            long upperBound = -1;
+            if (!budget.isUnlimited()) {
+                byte[] side = used == null || used == MatchingEngine.HOPCROFT_KARP ? compact.bipartition() : null;
+                MatchingBudget remaining = budget.minus(System.nanoTime() - start);
+                if (used == null) {
+                    used = side != null ? MatchingEngine.HOPCROFT_KARP : MatchingEngine.MICALI_VAZIRANI;
+                } else if (used == MatchingEngine.HOPCROFT_KARP && side == null) {
+                    throw new IllegalArgumentException("The graph is not bipartite.");
+                }
+                if (used == MatchingEngine.HOPCROFT_KARP) {
+                    HopcroftKarpMatching solver = new HopcroftKarpMatching(compact, side);
+                    solver.setBudget(remaining);
+                    mate = solver.solve(initialMate);
+                    upperBound = solver.getUpperBound();
+                    stats.add(solver.getStats());
+                } else if (used == MatchingEngine.MICALI_VAZIRANI) {
+                    MicaliVaziraniMatching solver = new MicaliVaziraniMatching(compact);
+                    solver.setBudget(remaining);
+                    mate = solver.solve(initialMate);
+                    upperBound = solver.getUpperBound();
+                    stats.add(solver.getStats());
+                } else {
+                    CompactBlossomMatching solver = new CompactBlossomMatching(compact);
+                    solver.setBudget(remaining);
+                    mate = solver.solve(initialMate);
+                    upperBound = solver.getUpperBound();
+                    stats.add(solver.getStats());
+                }
+            } else if (parallel) {
+                ComponentMatching components = new ComponentMatching(compact, engine);
+                mate = components.solve(initialMate);
+                stats.add(components.getStats());
+                used = components.getEngine();
+            } else if (used == null) {
+                byte[] side = compact.bipartition();
+                if (side != null) {
+                    used = MatchingEngine.HOPCROFT_KARP;
+                    HopcroftKarpMatching solver = new HopcroftKarpMatching(compact, side);
+                    mate = solver.solve(initialMate);
+                    stats.add(solver.getStats());
+                } else {
+                    used = MatchingEngine.MICALI_VAZIRANI;
+                    mate = used.solve(compact, initialMate, stats);
+                }
+            } else {
+                mate = used.solve(compact, initialMate, stats);
+            }
+            stats.warmStartNanos = warmStartNanos;
+            if (upperBound < 0) {
+                upperBound = countPairs(mate);
+            }
+            if (kernel == null) {
+                // Keeps the mate array and leaves building the map of pairs to the caller, if it needs one
+                result = new MatchingResult(compact, mate, used, System.nanoTime() - start,
+                        warmStart, warmStartSize, warmStartNanos, stats, upperBound);
+            } else {
+                result = finish(compact.toMatching(mate), upperBound, kernel, kernelNanos, stats, used, start, warmStartSize);
+            }
+        }
+
+        MatchingStatsMonitor.getInstance().record(result.getStats());
+        event.end();
+        if (event.shouldCommit()) {
+            MatchingStats stats = result.getStats();
+            event.engine = result.getEngine().name();
+            event.vertices = graph != null ? graph.getNumVertices() : snapshot.getNumVertices();
+            event.edges = graph != null ? graph.getNumEdges() : snapshot.getNumEdges();
+            event.matchingSize = result.size();
+            event.upperBound = result.getUpperBound();
+            event.searches = stats.getSearches();
+            event.augmentations = stats.getAugmentations();
+            event.failedSearches = stats.getFailedSearches();
+            event.verticesDequeued = stats.getVerticesDequeued();
+            event.edgesScanned = stats.getEdgesScanned();
+            event.blossomsShrunk = stats.getBlossomsShrunk();
+            event.lcaSteps = stats.getLcaSteps();
+            event.phases = stats.getPhases();
+            event.kernelNanos = stats.getKernelNanos();
+            event.warmStartNanos = stats.getWarmStartNanos();
+            event.searchNanos = stats.getSearchNanos();
+            event.liftNanos = stats.getLiftNanos();
+            event.commit();
+        }
+        return result;
+    }
+
+    // Lifts the matching back through the kernel, if any, and completes the timings
+    private MatchingResult finish(Map<Integer, Integer> matching, long upperBound, MatchingKernel kernel, long kernelNanos,
+                                  MatchingStats stats, MatchingEngine used, long start, int warmStartSize) {
+        stats.kernelNanos = kernelNanos;
+        if (kernel != null) {
+            long liftStart = System.nanoTime();
+            int kernelSize = matching.size() / 2;
+            matching = kernel.lift(matching);
+            // Lifting adds the same pairs to every matching of the kernel, so it shifts the bound as well
+            upperBound += matching.size() / 2 - kernelSize;
+            stats.liftNanos = System.nanoTime() - liftStart;
+        }
+        return new MatchingResult(matching, used, System.nanoTime() - start,
+                warmStart, warmStartSize, stats.getWarmStartNanos(), kernel, stats, upperBound);
+    }
+
+    private static int countPairs(int[] mate) {
+        int matched = 0;
+        for (int m : mate) {
+            if (m != -1) {
+                matched++;
+            }
+        }
+        return matched / 2;
+    }
+}
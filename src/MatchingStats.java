@@ -0,0 +1,103 @@
+/**
+ * Work counters and phase timings of one solve.
+ * The engines bump the counters with plain field increments on their own instance, which costs about
+ * as much as the loop variable next to it, so the statistics are always collected.
+ * Counters that do not apply to an engine stay at zero; Hopcroft-Karp, for instance, never shrinks a blossom.
+ */
+public class MatchingStats {
+    // Written directly by the engines and the forest of the same solve
+    long searches;
+    long augmentations;
+    long failedSearches;
+    long verticesDequeued;
+    long edgesScanned;
+    long blossomsShrunk;
+    long lcaSteps;
+    long phases;
+    long kernelNanos;
+    long warmStartNanos;
+    long searchNanos;
+    long liftNanos;
+
+    // Searches started: one per root, except for Micali-Vazirani, which starts one per phase
+    public long getSearches() {
+        return searches;
+    }
+
+    public long getAugmentations() {
+        return augmentations;
+    }
+
+    // Searches that ended without an augmenting path
+    public long getFailedSearches() {
+        return failedSearches;
+    }
+
+    // Even vertices taken from the search queue
+    public long getVerticesDequeued() {
+        return verticesDequeued;
+    }
+
+    // Adjacency entries examined by the searches
+    public long getEdgesScanned() {
+        return edgesScanned;
+    }
+
+    public long getBlossomsShrunk() {
+        return blossomsShrunk;
+    }
+
+    // Steps taken by the lowest-common-ancestor walks of all blossoms, a measure of how deep they were
+    public long getLcaSteps() {
+        return lcaSteps;
+    }
+
+    // Phases run by Hopcroft-Karp and Micali-Vazirani, zero for the single-root blossom searches
+    public long getPhases() {
+        return phases;
+    }
+
+    // Time spent reducing the graph, zero without kernelization
+    public long getKernelNanos() {
+        return kernelNanos;
+    }
+
+    // Time spent building the starting matching
+    public long getWarmStartNanos() {
+        return warmStartNanos;
+    }
+
+    // Time spent in the augmenting-path searches
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    // Time spent lifting the kernel's matching back to the original graph, zero without kernelization
+    public long getLiftNanos() {
+        return liftNanos;
+    }
+
+    // Adds the counters of another solve, such as one connected component, to these
+    synchronized void add(MatchingStats other) {
+        searches += other.searches;
+        augmentations += other.augmentations;
+        failedSearches += other.failedSearches;
+        verticesDequeued += other.verticesDequeued;
+        edgesScanned += other.edgesScanned;
+        blossomsShrunk += other.blossomsShrunk;
+        lcaSteps += other.lcaSteps;
+        phases += other.phases;
+        kernelNanos += other.kernelNanos;
+        warmStartNanos += other.warmStartNanos;
+        searchNanos += other.searchNanos;
+        liftNanos += other.liftNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "MatchingStats{searches=" + searches + ", augmentations=" + augmentations + ", failedSearches=" + failedSearches
+                + ", verticesDequeued=" + verticesDequeued + ", edgesScanned=" + edgesScanned + ", blossomsShrunk=" + blossomsShrunk
+                + ", lcaSteps=" + lcaSteps + ", phases=" + phases + ", kernelNanos=" + kernelNanos + ", warmStartNanos=" + warmStartNanos
+                + ", searchNanos=" + searchNanos + ", liftNanos=" + liftNanos + '}';
+    }
+}
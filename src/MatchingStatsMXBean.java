@@ -0,0 +1,42 @@
+/**
+ * Management interface of the totals kept by {@link MatchingStatsMonitor}, visible in JConsole and
+ * other JMX clients under {@value MatchingStatsMonitor#OBJECT_NAME} once the monitor is registered.
+ */
+public interface MatchingStatsMXBean {
+    // Number of solves recorded since start or the last reset
+    long getSolves();
+
+    // Searches started: one per root, except for Micali-Vazirani, which starts one per phase
+    long getSearches();
+
+    long getAugmentations();
+
+    long getFailedSearches();
+
+    long getVerticesDequeued();
+
+    long getEdgesScanned();
+
+    long getBlossomsShrunk();
+
+    long getLcaSteps();
+
+    // Phases run by Hopcroft-Karp and Micali-Vazirani; the single-root blossom searches run none
+    long getPhases();
+
+    long getKernelNanos();
+
+    long getWarmStartNanos();
+
+    long getSearchNanos();
+
+    long getLiftNanos();
+
+    // Whether solves are added to the totals; true unless switched off
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    // Sets every total back to zero
+    void reset();
+}
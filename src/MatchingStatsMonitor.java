@@ -0,0 +1,156 @@
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide totals of the {@link MatchingStats} of every {@link MatchingSolver} run.
+ * Recording is a handful of {@link LongAdder} updates per solve, next to a solve that takes at least
+ * microseconds, so it is on by default and {@link Main} registers the bean in both modes. The totals only
+ * become visible over JMX after {@link #register()}; {@link #setEnabled(boolean)}, also writable from a JMX
+ * client, stops the recording for processes that do not want it.
+ */
+public final class MatchingStatsMonitor implements MatchingStatsMXBean {
+    public static final String OBJECT_NAME = "blossom:type=MatchingStats";
+    private static final MatchingStatsMonitor INSTANCE = new MatchingStatsMonitor();
+
+    private volatile boolean enabled = true;
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder augmentations = new LongAdder();
+    private final LongAdder failedSearches = new LongAdder();
+    private final LongAdder verticesDequeued = new LongAdder();
+    private final LongAdder edgesScanned = new LongAdder();
+    private final LongAdder blossomsShrunk = new LongAdder();
+    private final LongAdder lcaSteps = new LongAdder();
+    private final LongAdder phases = new LongAdder();
+    private final LongAdder kernelNanos = new LongAdder();
+    private final LongAdder warmStartNanos = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder liftNanos = new LongAdder();
+
+    private MatchingStatsMonitor() {
+    }
+
+    public static MatchingStatsMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the monitor with the platform MBean server. Calling it again does nothing.
+     * @throws IllegalStateException if the server rejects the bean
+     */
+    public static synchronized void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + OBJECT_NAME + ".", e);
+        }
+    }
+
+    // Adds the statistics of one solve to the totals
+    void record(MatchingStats stats) {
+        if (!enabled) {
+            return;
+        }
+        solves.increment();
+        searches.add(stats.getSearches());
+        augmentations.add(stats.getAugmentations());
+        failedSearches.add(stats.getFailedSearches());
+        verticesDequeued.add(stats.getVerticesDequeued());
+        edgesScanned.add(stats.getEdgesScanned());
+        blossomsShrunk.add(stats.getBlossomsShrunk());
+        lcaSteps.add(stats.getLcaSteps());
+        phases.add(stats.getPhases());
+        kernelNanos.add(stats.getKernelNanos());
+        warmStartNanos.add(stats.getWarmStartNanos());
+        searchNanos.add(stats.getSearchNanos());
+        liftNanos.add(stats.getLiftNanos());
+    }
+
+    @Override
+    public long getSolves() {
+        return solves.sum();
+    }
+
+    @Override
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    @Override
+    public long getAugmentations() {
+        return augmentations.sum();
+    }
+
+    @Override
+    public long getFailedSearches() {
+        return failedSearches.sum();
+    }
+
+    @Override
+    public long getVerticesDequeued() {
+        return verticesDequeued.sum();
+    }
+
+    @Override
+    public long getEdgesScanned() {
+        return edgesScanned.sum();
+    }
+
+    @Override
+    public long getBlossomsShrunk() {
+        return blossomsShrunk.sum();
+    }
+
+    @Override
+    public long getLcaSteps() {
+        return lcaSteps.sum();
+    }
+
+    @Override
+    public long getPhases() {
+        return phases.sum();
+    }
+
+    @Override
+    public long getKernelNanos() {
+        return kernelNanos.sum();
+    }
+
+    @Override
+    public long getWarmStartNanos() {
+        return warmStartNanos.sum();
+    }
+
+    @Override
+    public long getSearchNanos() {
+        return searchNanos.sum();
+    }
+
+    @Override
+    public long getLiftNanos() {
+        return liftNanos.sum();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{solves, searches, augmentations, failedSearches, verticesDequeued, edgesScanned,
+                blossomsShrunk, lcaSteps, phases, kernelNanos, warmStartNanos, searchNanos, liftNanos}) {
+            adder.reset();
+        }
+    }
+}
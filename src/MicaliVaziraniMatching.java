@@ -0,0 +1,819 @@
+import java.util.*;
+
+/**
+ * Micali-Vazirani maximum matching for general graphs, in O(E * sqrt(V)) time.
+ * Like Hopcroft-Karp, every phase augments along a maximal set of vertex-disjoint shortest augmenting
+ * paths, so the length of a shortest augmenting path grows from one phase to the next and O(sqrt(V))
+ * phases suffice; here a phase also runs in linear time on graphs with odd cycles.
+ * <p>
+ * A phase searches from all free vertices at once and gives every vertex its even and odd level, the
+ * lengths of its shortest even and odd alternating paths from a free vertex. The search proceeds by
+ * search level. The min step extends the levels by one edge along props, the edges that lead to a vertex
+ * from the vertices one level lower (its predecessors). The max step takes the bridges, the remaining
+ * edges between reached vertices, in order of tenacity (the length of the shortest alternating walk
+ * through them). From the two ends of a bridge, a double depth-first search walks down the predecessors
+ * and either reaches two distinct free vertices, which gives an augmenting path, or finds the bottleneck
+ * both walks have to pass. The vertices above the bottleneck then form a petal, which plays the role of a
+ * blossom with the bottleneck as its bud, and get their second level. After every augmentation the
+ * vertices that can no longer reach a free vertex are erased for the rest of the phase.
+ */
+public class MicaliVaziraniMatching {
+    private static final int NONE = -1;
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final byte RED = 1;   // reached from the first end of the bridge
+    private static final byte GREEN = 2; // reached from the second end of the bridge
+    private static final byte EVEN_SCANNED = 1;
+    private static final byte ODD_SCANNED = 2;
+    // Outcomes of a double depth-first search
+    private static final int EMPTY = 0;
+    private static final int PETAL = 1;
+    private static final int PATH = 2;
+    // Steps of the expansion of an augmenting path, kept on an explicit stack since petals nest deeply
+    private static final int EMIT = 0;
+    private static final int CLIMB = 1;
+    private static final int OPEN = 2;
+    private static final int DESCEND = 3;
+    private static final int MARK = 4;
+    private static final int REVERSE = 5;
+    private static final int TASK_SIZE = 6;
+
+    private final CompactGraph graph;
+    private final int n;
+    private final int[] mate;
+    private final MatchingStats stats = new MatchingStats();
+    private MatchingBudget budget = MatchingBudget.UNLIMITED;
+    private int phases;
+    private long size;
+    private long upperBound;
+    private boolean limited;
+    private boolean stopped; // the budget ran out during the last phase
+    private long start;
+    private long firstEdges;
+
+    // Levels of the current phase
+    private final int[] evenLevel;
+    private final int[] oddLevel;
+    private final byte[] scanned;
+    private int[] levelHead;        // vertices to scan at each search level, linked through levelNext
+    private final int[] levelNext;  // indexed by 2 * v + the parity of the level
+    private int maxLevel;
+
+    // Props p -> v, linked into a predecessor list per v and a successor list per p
+    private final int[] predHead;
+    private final int[] predCount;  // predecessors not erased yet
+    private final int[] succHead;
+    private int[] propFrom = new int[16];
+    private int[] propTo = new int[16];
+    private int[] nextPred = new int[16];
+    private int[] nextSucc = new int[16];
+    private int props;
+
+    // Even neighbors met by an odd vertex before it had an even level; the edge becomes a bridge once it does
+    private final int[] anomalyHead;
+    private int[] anomalyVertex = new int[16];
+    private int[] nextAnomaly = new int[16];
+    private int anomalies;
+
+    // Bridges, bucketed by (tenacity - 1) / 2, the search level at which they are processed
+    private int[] bridgeHead;
+    private int[] bridgeFrom = new int[16];
+    private int[] bridgeTo = new int[16];
+    private int[] nextBridge = new int[16];
+    private int bridges;
+    private int maxBridgeLevel;
+
+    // Petals, with the bridge and the bud of each
+    private final int[] budParent;  // union-find parent; a root is the outermost bud of its petals
+    private final int[] petal;      // petal that gave the vertex its second level, or NONE
+    private final byte[] color;     // RED or GREEN, from the double search that formed that petal
+    private int[] petalBud = new int[16];
+    private int[] petalFrom = new int[16];
+    private int[] petalTo = new int[16];
+    private int petals;
+    private final boolean[] erased;
+
+    // Double depth-first search, stamped with the epoch of the current search
+    private final int[] ddfsStamp;
+    private int ddfsEpoch;
+    private final byte[] ddfsColor;
+    private final int[] ddfsParent;
+    private final int[] ddfsVia;    // predecessor through which the vertex was entered
+    private final int[] ddfsCursor; // next prop of the predecessor list to try
+    private final int[] visited;
+    private int visitedCount;
+    private int red, green, barrier, bottleneck;
+    private int greenParentOfBottleneck, greenViaOfBottleneck;
+
+    // Expansion of an augmenting path through its petals
+    private final int[] searchStamp;
+    private int searchEpoch;
+    private final int[] searchParent;
+    private final int[] searchVia;
+    private final int[] searchCursor;
+    private final int[] searchStack;
+    private int[] tasks = new int[16 * TASK_SIZE];
+    private int taskTop;
+    private int[] marks = new int[16];
+    private int markTop;
+    private final int[] path;
+    private int pathLength;
+    private final int[] eraseQueue;
+
+    /**
+     * Creates a solver for the given snapshot.
+     * @param graph the graph to match
+     */
+    public MicaliVaziraniMatching(CompactGraph graph) {
+        this.graph = graph;
+        this.n = graph.getNumVertices();
+        this.mate = new int[n];
+        this.evenLevel = new int[n];
+        this.oddLevel = new int[n];
+        this.scanned = new byte[n];
+        this.levelHead = new int[n + 2];
+        this.levelNext = new int[2 * n];
+        this.predHead = new int[n];
+        this.predCount = new int[n];
+        this.succHead = new int[n];
+        this.anomalyHead = new int[n];
+        this.bridgeHead = new int[n + 2];
+        this.budParent = new int[n];
+        this.petal = new int[n];
+        this.color = new byte[n];
+        this.erased = new boolean[n];
+        this.ddfsStamp = new int[n];
+        this.ddfsColor = new byte[n];
+        this.ddfsParent = new int[n];
+        this.ddfsVia = new int[n];
+        this.ddfsCursor = new int[n];
+        this.visited = new int[n];
+        this.searchStamp = new int[n];
+        this.searchParent = new int[n];
+        this.searchVia = new int[n];
+        this.searchCursor = new int[n];
+        this.searchStack = new int[n];
+        this.path = new int[n];
+        this.eraseQueue = new int[n];
+        Arrays.fill(levelHead, NONE);
+        Arrays.fill(bridgeHead, NONE);
+    }
+
+    /**
+     * Lets the solves stop early with the best matching found so far; see {@link #getUpperBound()}.
+     * Defaults to {@link MatchingBudget#UNLIMITED}.
+     * @param budget the limits of every solve
+     */
+    public void setBudget(MatchingBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Computes a maximum matching.
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve() {
+        return solve(null);
+    }
+
+    /**
+     * Computes a maximum matching, starting from the given matching instead of the empty one.
+     * @param initialMate the mate of every dense index, or null to start from the empty matching
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public int[] solve(int[] initialMate) {
+        if (initialMate != null) {
+            System.arraycopy(initialMate, 0, mate, 0, n);
+        } else {
+            Arrays.fill(mate, NONE);
+        }
+        phases = 0;
+        start = System.nanoTime();
+        size = 0;
+        long free = 0;
+        for (int v = 0; v < n; v++) {
+            if (mate[v] == NONE) {
+                free++;
+            } else {
+                size++;
+            }
+        }
+        size /= 2;
+        upperBound = size + free / 2;
+        limited = !budget.isUnlimited();
+        stopped = false;
+        firstEdges = stats.edgesScanned;
+        while (true) {
+            stats.searches++;
+            int augmented = runPhase();
+            if (augmented == 0) {
+                if (!stopped) {
+                    stats.failedSearches++;
+                    upperBound = size; // no augmenting path is left
+                }
+                break;
+            }
+            phases++;
+            stats.phases++;
+            stats.augmentations += augmented;
+            size += augmented;
+            if (stopped) {
+                break;
+            }
+        }
+        stats.searchNanos += System.nanoTime() - start;
+        return mate.clone();
+    }
+
+    // Size of a maximum matching is at most this; equal to the size of the matching of the last solve unless its budget ran out
+    public long getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Computes a maximum matching and maps it back to vertex ids.
+     * @return the matching with each pair stored in both directions
+     */
+    public Map<Integer, Integer> findMaximumMatching() {
+        return graph.toMatching(solve());
+    }
+
+    // Number of phases that augmented the matching during the last solve
+    public int getNumPhases() {
+        return phases;
+    }
+
+    // Work done by the solves of this instance so far; petals count as shrunk blossoms and steps of the double searches as LCA steps
+    public MatchingStats getStats() {
+        return stats;
+    }
+
+    // Augments along a maximal set of vertex-disjoint shortest augmenting paths; returns how many there were
+    private int runPhase() {
+        Arrays.fill(evenLevel, INFINITY);
+        Arrays.fill(oddLevel, INFINITY);
+        Arrays.fill(scanned, (byte) 0);
+        Arrays.fill(predHead, NONE);
+        Arrays.fill(predCount, 0);
+        Arrays.fill(succHead, NONE);
+        Arrays.fill(anomalyHead, NONE);
+        Arrays.fill(petal, NONE);
+        Arrays.fill(erased, false);
+        for (int v = 0; v < n; v++) {
+            budParent[v] = v;
+        }
+        Arrays.fill(levelHead, 0, maxLevel + 1, NONE);
+        Arrays.fill(bridgeHead, 0, maxBridgeLevel + 1, NONE);
+        maxLevel = 0;
+        maxBridgeLevel = -1;
+        props = 0;
+        anomalies = 0;
+        bridges = 0;
+        petals = 0;
+        for (int v = 0; v < n; v++) {
+            if (mate[v] == NONE) {
+                evenLevel[v] = 0;
+                addToLevel(v, 0);
+            }
+        }
+
+        // Paths found at search level i have length 2i + 1, so the phase ends at the first level that augments
+        int augmented = 0;
+        for (int i = 0; augmented == 0 && !stopped && i <= Math.max(maxLevel, maxBridgeLevel); i++) {
+            // No augmenting path has fewer than i matched edges, which bounds the optimum by (i + 1) / i times the matching
+            if (i > 0) {
+                upperBound = Math.min(upperBound, size + size / i);
+            }
+            if (limited && (budget.isCloseEnough(size, upperBound)
+                    || budget.isExhausted(0, start, stats.edgesScanned - firstEdges))) {
+                stopped = true;
+                break;
+            }
+            min(i);
+            if (!stopped) {
+                augmented = max(i);
+            }
+        }
+        return augmented;
+    }
+
+    // Scans the vertices whose even (for even i) or odd (for odd i) level is i
+    private void min(int i) {
+        if (i > maxLevel) {
+            return;
+        }
+        int parity = i & 1;
+        for (int v = levelHead[i]; v != NONE; v = levelNext[2 * v + parity]) {
+            // On a large graph a single level can outlast the budget, so it is checked here too
+            stats.verticesDequeued++;
+            if (limited && (stats.verticesDequeued & 1023) == 0
+                    && budget.isExhausted(0, start, stats.edgesScanned - firstEdges)) {
+                stopped = true;
+                return;
+            }
+            if (parity == 0) {
+                scanned[v] |= EVEN_SCANNED;
+                int first = graph.firstEdge(v), end = graph.endEdge(v);
+                stats.edgesScanned += end - first;
+                for (int e = first; e < end; e++) {
+                    int u = graph.target(e);
+                    // An edge to a vertex scanned at its even level was handled from that side already
+                    if (u == v || u == mate[v] || (scanned[u] & EVEN_SCANNED) != 0) continue;
+                    if (evenLevel[u] != INFINITY) {
+                        addBridge(v, u, (evenLevel[u] + i) / 2);
+                    } else if (oddLevel[u] == INFINITY) {
+                        oddLevel[u] = i + 1;
+                        addToLevel(u, i + 1);
+                        addProp(v, u);
+                    } else if (oddLevel[u] == i + 1) {
+                        addProp(v, u);
+                    } else {
+                        addAnomaly(u, v);
+                    }
+                }
+            } else {
+                // Only matched vertices get an odd level, and only their matched edge leaves it
+                scanned[v] |= ODD_SCANNED;
+                int u = mate[v];
+                stats.edgesScanned++;
+                if ((scanned[u] & ODD_SCANNED) != 0) continue;
+                if (oddLevel[u] != INFINITY) {
+                    addBridge(v, u, (oddLevel[u] + i) / 2);
+                } else if (evenLevel[u] == INFINITY) {
+                    evenLevel[u] = i + 1;
+                    addToLevel(u, i + 1);
+                    addProp(v, u);
+                }
+            }
+        }
+    }
+
+    // Processes the bridges of tenacity 2i + 1; returns the number of augmentations
+    private int max(int i) {
+        if (i > maxBridgeLevel) {
+            return 0;
+        }
+        int augmented = 0;
+        int tried = 0;
+        // Petals formed here can add bridges of the same tenacity, so the bucket is consumed as a stack
+        while (bridgeHead[i] != NONE) {
+            int b = bridgeHead[i];
+            bridgeHead[i] = nextBridge[b];
+            if (limited && (++tried & 1023) == 0 && budget.isExhausted(0, start, stats.edgesScanned - firstEdges)) {
+                stopped = true;
+                break;
+            }
+            int s = bridgeFrom[b], t = bridgeTo[b];
+            if (erased[s] || erased[t]) continue;
+            int outcome = doubleSearch(s, t);
+            if (outcome == PETAL) {
+                formPetal(s, t, 2 * i + 1);
+            } else if (outcome == PATH) {
+                augment(s, t);
+                augmented++;
+            }
+        }
+        return augmented;
+    }
+
+    /**
+     * Walks down from the outermost buds of both ends of a bridge, one vertex at a time, always moving
+     * the walk that is higher up. When the walks meet, green backs up to look for a way around the
+     * meeting point; if it has none, red gets to look instead, and if neither has one the meeting point
+     * is the bottleneck. Green never backs up above the last bottleneck candidate it gave up, since
+     * everything above it has been searched already.
+     * @return EMPTY if both ends already share a petal, PETAL with the bottleneck set, or PATH with
+     *         red and green set to two distinct free vertices
+     */
+    private int doubleSearch(int s, int t) {
+        red = budStar(s);
+        green = budStar(t);
+        if (red == green || erased[red] || erased[green]) {
+            return EMPTY;
+        }
+        if (ddfsEpoch == Integer.MAX_VALUE) {
+            Arrays.fill(ddfsStamp, 0);
+            ddfsEpoch = 0;
+        }
+        ddfsEpoch++;
+        visitedCount = 0;
+        visit(red, RED, NONE, NONE);
+        visit(green, GREEN, NONE, NONE);
+        barrier = green;
+        bottleneck = NONE;
+        while (true) {
+            int redLevel = minLevel(red), greenLevel = minLevel(green);
+            if (redLevel == 0 && greenLevel == 0) {
+                return PATH;
+            }
+            stats.lcaSteps++;
+            if (redLevel >= greenLevel) {
+                int p = nextPredecessor(red);
+                if (p == NONE) {
+                    if (ddfsParent[red] != NONE) {
+                        red = ddfsParent[red];
+                    } else if (bottleneck != NONE && green == bottleneck) {
+                        return PETAL;
+                    } else {
+                        throw new IllegalStateException("The red search is stuck at " + red + '.');
+                    }
+                    continue;
+                }
+                int u = budStar(p);
+                if (erased[u]) continue;
+                if (ddfsStamp[u] != ddfsEpoch) {
+                    visit(u, RED, red, p);
+                    red = u;
+                } else if (u == green) {
+                    // Red takes the meeting point for now and green backs up to find a way around it
+                    bottleneck = u;
+                    greenParentOfBottleneck = ddfsParent[u];
+                    greenViaOfBottleneck = ddfsVia[u];
+                    ddfsColor[u] = RED;
+                    ddfsParent[u] = red;
+                    ddfsVia[u] = p;
+                    red = u;
+                    if (u != barrier) {
+                        green = greenParentOfBottleneck;
+                    } else if (greenGivesUp()) {
+                        return PETAL;
+                    }
+                }
+            } else {
+                int p = nextPredecessor(green);
+                if (p == NONE) {
+                    if (green != barrier) {
+                        green = ddfsParent[green];
+                    } else if (greenGivesUp()) {
+                        return PETAL;
+                    }
+                    continue;
+                }
+                int u = budStar(p);
+                if (erased[u]) continue;
+                if (ddfsStamp[u] != ddfsEpoch) {
+                    visit(u, GREEN, green, p);
+                    green = u;
+                } else if (u == red) {
+                    bottleneck = u;
+                    greenParentOfBottleneck = green;
+                    greenViaOfBottleneck = p;
+                }
+            }
+        }
+    }
+
+    // Green found no way around the meeting point, so it takes it back and red backs up; returns whether red cannot
+    private boolean greenGivesUp() {
+        if (bottleneck == NONE || red != bottleneck) {
+            throw new IllegalStateException("The green search is stuck at " + green + '.');
+        }
+        int redParent = ddfsParent[bottleneck];
+        ddfsColor[bottleneck] = GREEN;
+        ddfsParent[bottleneck] = greenParentOfBottleneck;
+        ddfsVia[bottleneck] = greenViaOfBottleneck;
+        green = bottleneck;
+        barrier = bottleneck;
+        red = redParent;
+        return red == NONE;
+    }
+
+    private void visit(int v, byte side, int parent, int via) {
+        ddfsStamp[v] = ddfsEpoch;
+        ddfsColor[v] = side;
+        ddfsParent[v] = parent;
+        ddfsVia[v] = via;
+        ddfsCursor[v] = predHead[v];
+        visited[visitedCount++] = v;
+    }
+
+    // Next predecessor of v not erased yet that this double search has not tried, or NONE
+    private int nextPredecessor(int v) {
+        int k = ddfsCursor[v];
+        while (k != NONE && erased[propFrom[k]]) {
+            k = nextPred[k];
+        }
+        if (k == NONE) {
+            ddfsCursor[v] = NONE;
+            return NONE;
+        }
+        ddfsCursor[v] = nextPred[k];
+        return propFrom[k];
+    }
+
+    // Turns the vertices the double search visited above the bottleneck into a petal with the bottleneck as bud
+    private void formPetal(int s, int t, int tenacity) {
+        int id = petals++;
+        if (id == petalBud.length) {
+            petalBud = Arrays.copyOf(petalBud, 2 * id);
+            petalFrom = Arrays.copyOf(petalFrom, 2 * id);
+            petalTo = Arrays.copyOf(petalTo, 2 * id);
+        }
+        petalBud[id] = bottleneck;
+        petalFrom[id] = s;
+        petalTo[id] = t;
+        stats.blossomsShrunk++;
+        int budLevel = minLevel(bottleneck);
+        for (int k = 0; k < visitedCount; k++) {
+            int x = visited[k];
+            // Whatever green visited below the bottleneck before backing up to it stays outside
+            if (x == bottleneck || minLevel(x) <= budLevel) continue;
+            budParent[x] = bottleneck;
+            petal[x] = id;
+            color[x] = ddfsColor[x];
+            if (evenLevel[x] == INFINITY) {
+                evenLevel[x] = tenacity - oddLevel[x];
+                addToLevel(x, evenLevel[x]);
+                for (int a = anomalyHead[x]; a != NONE; a = nextAnomaly[a]) {
+                    int u = anomalyVertex[a];
+                    addBridge(x, u, (evenLevel[x] + evenLevel[u]) / 2);
+                }
+            } else {
+                oddLevel[x] = tenacity - evenLevel[x];
+                addToLevel(x, oddLevel[x]);
+            }
+        }
+    }
+
+    // Builds the augmenting path through the bridge s - t, flips it and erases what it cut off
+    private void augment(int s, int t) {
+        pathLength = 0;
+        taskTop = 0;
+        markTop = 0;
+        // The red half runs from s down to a free vertex and is reversed, so that the path starts there
+        pushWalk(t, bridgeLevel(t, s), green);
+        push(REVERSE, 0, 0, 0, 0, 0);
+        pushWalk(s, bridgeLevel(s, t), red);
+        push(MARK, 0, 0, 0, 0, 0);
+        expand();
+
+        for (int k = 0; k < pathLength; k += 2) {
+            int u = path[k], v = path[k + 1];
+            mate[u] = v;
+            mate[v] = u;
+        }
+        int head = 0, tail = 0;
+        for (int k = 0; k < pathLength; k++) {
+            erased[path[k]] = true;
+            eraseQueue[tail++] = path[k];
+        }
+        while (head < tail) {
+            int p = eraseQueue[head++];
+            for (int k = succHead[p]; k != NONE; k = nextSucc[k]) {
+                int v = propTo[k];
+                if (!erased[v] && --predCount[v] == 0) {
+                    erased[v] = true;
+                    eraseQueue[tail++] = v;
+                }
+            }
+        }
+    }
+
+    // Level of v on an alternating path that continues over the edge to w
+    private int bridgeLevel(int v, int w) {
+        return mate[v] == w ? oddLevel[v] : evenLevel[v];
+    }
+
+    // Queues the walk from v down the double search tree that ends at the free vertex end
+    private void pushWalk(int v, int level, int end) {
+        int x = end;
+        while (ddfsParent[x] != NONE) {
+            int parent = ddfsParent[x];
+            push(CLIMB, ddfsVia[x], minLevel(parent) - 1, x, 0, 0);
+            push(EMIT, ddfsVia[x], 0, 0, 0, 0);
+            x = parent;
+        }
+        push(CLIMB, v, level, x, 0, 0);
+        push(EMIT, v, 0, 0, 0, 0);
+    }
+
+    /**
+     * Runs the queued steps, which append the augmenting path to path:
+     * EMIT(v) appends v; CLIMB(v, level, bud) appends the path from v at the given level down to bud,
+     * one enclosing petal at a time; OPEN(v, level) appends the path from v down to the bud of its petal;
+     * DESCEND(high, level, low, petal, color, include) appends a path from high down to low inside a petal;
+     * MARK and REVERSE reverse everything appended in between.
+     */
+    private void expand() {
+        while (taskTop > 0) {
+            taskTop -= TASK_SIZE;
+            int type = tasks[taskTop], v = tasks[taskTop + 1], level = tasks[taskTop + 2];
+            int low = tasks[taskTop + 3], id = tasks[taskTop + 4], flags = tasks[taskTop + 5];
+            switch (type) {
+                case EMIT:
+                    path[pathLength++] = v;
+                    break;
+                case CLIMB:
+                    if (v != low) {
+                        int bud = petalBud[petal[v]];
+                        push(CLIMB, bud, evenLevel[bud], low, 0, 0);
+                        push(OPEN, v, level, 0, 0, 0);
+                    }
+                    break;
+                case OPEN:
+                    open(v, level);
+                    break;
+                case DESCEND:
+                    descend(v, level, low, id, (byte) (flags >> 1), (flags & 1) != 0);
+                    break;
+                case MARK:
+                    if (markTop == marks.length) {
+                        marks = Arrays.copyOf(marks, 2 * markTop);
+                    }
+                    marks[markTop++] = pathLength;
+                    break;
+                case REVERSE:
+                    int from = marks[--markTop];
+                    if (flags != 0) {
+                        pathLength--; // drops the vertex the walk ended at, which the caller has appended already
+                    }
+                    for (int a = from, b = pathLength - 1; a < b; a++, b--) {
+                        int swap = path[a];
+                        path[a] = path[b];
+                        path[b] = swap;
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown step " + type + '.');
+            }
+        }
+    }
+
+    /**
+     * Queues the path from v, reached at the given level, down to the bud of its petal.
+     * At its lower level v is above the bud inside the petal. At its higher level the path goes up
+     * from v to its end of the petal's bridge, crosses it and comes down the other side.
+     */
+    private void open(int v, int level) {
+        int id = petal[v];
+        int bud = petalBud[id];
+        if (level == minLevel(v)) {
+            push(DESCEND, v, level, bud, id, 0);
+            return;
+        }
+        byte side = color[v];
+        int first = side == RED ? petalFrom[id] : petalTo[id];
+        int second = side == RED ? petalTo[id] : petalFrom[id];
+        byte other = side == RED ? GREEN : RED;
+        push(DESCEND, second, bridgeLevel(second, first), bud, id, other << 1 | 1);
+        push(REVERSE, 0, 0, 0, 0, 1);
+        push(DESCEND, first, bridgeLevel(first, second), v, id, side << 1 | 1);
+        push(MARK, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Finds a path inside petal id from high down to low by a depth-first search over the predecessors of the
+     * petal's vertices, only through vertices of the given color unless it is 0, and queues its steps.
+     * Vertices of inner petals are passed by their buds and opened by the queued steps.
+     */
+    private void descend(int high, int level, int low, int id, byte side, boolean includeHigh) {
+        int start = enclosingVertex(high, id);
+        int lowLevel = minLevel(low);
+        if (start != low) {
+            if (searchEpoch == Integer.MAX_VALUE) {
+                Arrays.fill(searchStamp, 0);
+                searchEpoch = 0;
+            }
+            searchEpoch++;
+            searchStamp[start] = searchEpoch;
+            searchCursor[start] = predHead[start];
+            int top = 0;
+            searchStack[0] = start;
+            boolean found = false;
+            while (top >= 0 && !found) {
+                int y = searchStack[top];
+                int k = searchCursor[y];
+                if (k == NONE) {
+                    top--;
+                    continue;
+                }
+                searchCursor[y] = nextPred[k];
+                int p = propFrom[k];
+                if (erased[p]) continue;
+                int x = enclosingVertex(p, id);
+                if (x == low) {
+                    searchParent[low] = y;
+                    searchVia[low] = p;
+                    found = true;
+                } else if (x != NONE && petal[x] == id && searchStamp[x] != searchEpoch
+                        && minLevel(x) > lowLevel && (side == 0 || color[x] == side)) {
+                    searchStamp[x] = searchEpoch;
+                    searchCursor[x] = predHead[x];
+                    searchParent[x] = y;
+                    searchVia[x] = p;
+                    searchStack[++top] = x;
+                }
+            }
+            if (!found) {
+                throw new IllegalStateException("No path from " + high + " to " + low + " in petal " + id + '.');
+            }
+            for (int x = low; x != start; x = searchParent[x]) {
+                int parent = searchParent[x];
+                push(CLIMB, searchVia[x], minLevel(parent) - 1, x, 0, 0);
+                push(EMIT, searchVia[x], 0, 0, 0, 0);
+            }
+        }
+        push(CLIMB, high, level, start, 0, 0);
+        if (includeHigh) {
+            push(EMIT, high, 0, 0, 0, 0);
+        }
+    }
+
+    // The vertex of petal id, or its bud, whose inner petals contain v, or NONE if v is outside the petal
+    private int enclosingVertex(int v, int id) {
+        int bud = petalBud[id];
+        while (v != bud && petal[v] != id) {
+            if (petal[v] == NONE) {
+                return NONE;
+            }
+            v = petalBud[petal[v]];
+        }
+        return v;
+    }
+
+    private void push(int type, int a, int b, int c, int d, int e) {
+        if (taskTop == tasks.length) {
+            tasks = Arrays.copyOf(tasks, 2 * taskTop);
+        }
+        tasks[taskTop] = type;
+        tasks[taskTop + 1] = a;
+        tasks[taskTop + 2] = b;
+        tasks[taskTop + 3] = c;
+        tasks[taskTop + 4] = d;
+        tasks[taskTop + 5] = e;
+        taskTop += TASK_SIZE;
+    }
+
+    private int minLevel(int v) {
+        return Math.min(evenLevel[v], oddLevel[v]);
+    }
+
+    // Outermost bud of the petals containing v, or v itself
+    private int budStar(int v) {
+        while (budParent[v] != v) {
+            budParent[v] = budParent[budParent[v]];
+            v = budParent[v];
+        }
+        return v;
+    }
+
+    private void addToLevel(int v, int level) {
+        if (level >= levelHead.length) {
+            int old = levelHead.length;
+            levelHead = Arrays.copyOf(levelHead, Math.max(2 * old, level + 1));
+            Arrays.fill(levelHead, old, levelHead.length, NONE);
+        }
+        int parity = level & 1;
+        levelNext[2 * v + parity] = levelHead[level];
+        levelHead[level] = v;
+        maxLevel = Math.max(maxLevel, level);
+    }
+
+    // Records that p is a predecessor of v
+    private void addProp(int p, int v) {
+        if (props == propFrom.length) {
+            int capacity = 2 * props;
+            propFrom = Arrays.copyOf(propFrom, capacity);
+            propTo = Arrays.copyOf(propTo, capacity);
+            nextPred = Arrays.copyOf(nextPred, capacity);
+            nextSucc = Arrays.copyOf(nextSucc, capacity);
+        }
+        int k = props++;
+        propFrom[k] = p;
+        propTo[k] = v;
+        nextPred[k] = predHead[v];
+        predHead[v] = k;
+        nextSucc[k] = succHead[p];
+        succHead[p] = k;
+        predCount[v]++;
+    }
+
+    private void addAnomaly(int v, int u) {
+        if (anomalies == anomalyVertex.length) {
+            anomalyVertex = Arrays.copyOf(anomalyVertex, 2 * anomalies);
+            nextAnomaly = Arrays.copyOf(nextAnomaly, 2 * anomalies);
+        }
+        int k = anomalies++;
+        anomalyVertex[k] = u;
+        nextAnomaly[k] = anomalyHead[v];
+        anomalyHead[v] = k;
+    }
+
+    private void addBridge(int s, int t, int level) {
+        if (bridges == bridgeFrom.length) {
+            bridgeFrom = Arrays.copyOf(bridgeFrom, 2 * bridges);
+            bridgeTo = Arrays.copyOf(bridgeTo, 2 * bridges);
+            nextBridge = Arrays.copyOf(nextBridge, 2 * bridges);
+        }
+        if (level >= bridgeHead.length) {
+            int old = bridgeHead.length;
+            bridgeHead = Arrays.copyOf(bridgeHead, Math.max(2 * old, level + 1));
+            Arrays.fill(bridgeHead, old, bridgeHead.length, NONE);
+        }
+        int k = bridges++;
+        bridgeFrom[k] = s;
+        bridgeTo[k] = t;
+        nextBridge[k] = bridgeHead[level];
+        bridgeHead[level] = k;
+        maxBridgeLevel = Math.max(maxBridgeLevel, level);
+    }
+}
@@ -0,0 +1,112 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Play, pause, step, speed and seek controls that replay a recorded search on a {@link GraphView}.
+ * Playback runs on a Swing timer, so the search itself never waits for the animation.
+ */
+class ReplayControls extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int FRAME_MILLIS = 40;
+
+    private final GraphView graphView;
+    private MatchingReplay replay;
+    private final JButton playButton = new JButton("Play");
+    private final JButton stepButton = new JButton("Step");
+    private final JSlider speedSlider = new JSlider(0, 40, 10); // log scale: 10^(value / 10) steps per second
+    private final JSlider seekSlider = new JSlider(0, 0, 0);
+    private final JLabel positionLabel = new JLabel("No recording");
+    private final Timer timer;
+    private double pendingSteps;
+    private boolean updatingSeek;
+
+    ReplayControls(GraphView graphView) {
+        this.graphView = graphView;
+        this.timer = new Timer(FRAME_MILLIS, e -> advance());
+
+        add(playButton);
+        add(stepButton);
+        add(new JLabel("Speed"));
+        speedSlider.setPreferredSize(new Dimension(100, speedSlider.getPreferredSize().height));
+        add(speedSlider);
+        seekSlider.setPreferredSize(new Dimension(250, seekSlider.getPreferredSize().height));
+        add(seekSlider);
+        add(positionLabel);
+
+        playButton.addActionListener(e -> togglePlay());
+        stepButton.addActionListener(e -> {
+            pause();
+            if (replay != null && replay.step()) {
+                showPosition();
+            }
+        });
+        seekSlider.addChangeListener(e -> {
+            if (!updatingSeek && replay != null) {
+                replay.seek(seekSlider.getValue());
+                showPosition();
+            }
+        });
+        setRecording(null);
+    }
+
+    /**
+     * Loads a recording and starts playing it from the beginning.
+     * @param log the recorded search, or null to disable the controls
+     */
+    void setRecording(MatchingEventLog log) {
+        pause();
+        replay = log == null ? null : new MatchingReplay(log);
+        playButton.setEnabled(log != null);
+        stepButton.setEnabled(log != null);
+        seekSlider.setEnabled(log != null);
+        if (replay != null) {
+            updatingSeek = true;
+            seekSlider.setMaximum(replay.size());
+            updatingSeek = false;
+            showPosition();
+            togglePlay();
+        } else {
+            positionLabel.setText("No recording");
+        }
+    }
+
+    private void togglePlay() {
+        if (timer.isRunning()) {
+            pause();
+        } else if (replay != null) {
+            if (replay.getPosition() == replay.size()) {
+                replay.seek(0);
+            }
+            pendingSteps = 0;
+            playButton.setText("Pause");
+            timer.start();
+        }
+    }
+
+    private void pause() {
+        timer.stop();
+        playButton.setText("Play");
+    }
+
+    // Applies as many events as the speed allows for one frame
+    private void advance() {
+        pendingSteps += Math.pow(10, speedSlider.getValue() / 10.0) * FRAME_MILLIS / 1000.0;
+        boolean more = true;
+        while (pendingSteps >= 1 && more) {
+            more = replay.step();
+            pendingSteps--;
+        }
+        showPosition();
+        if (!more || replay.getPosition() == replay.size()) {
+            pause();
+        }
+    }
+
+    private void showPosition() {
+        replay.showOn(graphView);
+        updatingSeek = true;
+        seekSlider.setValue(replay.getPosition());
+        updatingSeek = false;
+        positionLabel.setText("Step " + replay.getPosition() + " / " + replay.size());
+    }
+}
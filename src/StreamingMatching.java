@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Semi-streaming matching for edge streams too large to hold as a graph.
+ * Only O(V) state is kept: the mate of every matched vertex and, during an improvement pass, up to two
+ * free neighbors ("wings") of every matched vertex, all in primitive maps keyed by vertex id.
+ * The first pass builds a maximal matching online, which has at least half the pairs of a maximum matching.
+ * Every further pass looks for augmenting paths a - u = v - b of length three, where a and b are free and
+ * u = v is a matched pair, and flips each one as soon as both of its wings have been seen.
+ * A pass that flips nothing proves that no such path is left, and a matching without augmenting paths
+ * of length one or three has at least two thirds the pairs of a maximum matching.
+ * The result can warm-start {@link EdmondsBlossomAlgorithm#setInitialMatching(Map)} once the graph is loaded.
+ */
+public class StreamingMatching {
+    /**
+     * A stream of edges that can be read again for every pass, such as a file.
+     */
+    @FunctionalInterface
+    public interface EdgeSource {
+        void forEachEdge(EdgeConsumer action) throws IOException;
+    }
+
+    // Every int is a valid vertex id, so presence in these maps is tested with containsKey, never with a sentinel value
+    private final IntIntHashMap mate = new IntIntHashMap(1 << 10, 0);  // both directions of every pair
+    private IntIntHashMap wing;         // first free neighbor of a matched vertex, only during an improvement pass
+    private IntIntHashMap secondWing;   // second one, so that the two ends of a pair can pick different wings
+    private int size;
+    private long edgesRead;
+    private int improvementPasses;
+    private long augmentations;
+    private boolean changed;            // whether the running improvement pass has changed the matching
+    private boolean certified;          // whether the last improvement pass left no augmenting path of length three
+    private long peakBytes;
+
+    /**
+     * Returns an edge source that reads the file again for every pass, without loading it.
+     * @param path the file to read
+     * @param format the format of the file
+     * @return the edge source
+     */
+    public static EdgeSource file(Path path, GraphLoader.Format format) {
+        return action -> GraphLoader.forEachEdge(path, format, action);
+    }
+
+    /**
+     * Returns an edge source that reads the file again for every pass, guessing the format from the extension.
+     * @param path the file to read
+     * @return the edge source
+     */
+    public static EdgeSource file(Path path) {
+        return file(path, GraphLoader.Format.fromFileName(path));
+    }
+
+    /**
+     * Takes the next edge of the stream. Outside an improvement pass this is the online greedy step,
+     * which matches the edge if both its endpoints are free, so any iterator can drive the first pass directly.
+     * @param u the id of one endpoint
+     * @param v the id of the other endpoint
+     */
+    public void accept(int u, int v) {
+        edgesRead++;
+        if (u == v) {
+            return;
+        }
+        boolean freeU = isFree(u), freeV = isFree(v);
+        if (freeU && freeV) {
+            match(u, v);
+            size++;
+            // Only happens in an improvement pass if the stream differs from the first one
+            changed = true;
+            certified = false;
+        } else if (wing != null) {
+            if (freeU) {
+                addWing(v, u);
+            } else if (freeV) {
+                addWing(u, v);
+            }
+        }
+    }
+
+    /**
+     * Reads the stream once to build a maximal matching, then makes up to the given number of improvement
+     * passes, stopping early once a pass finds nothing to improve.
+     * @param edges the stream, which must yield the same edges on every pass
+     * @param improvementPasses the largest number of extra passes to make
+     * @return the number of pairs matched
+     * @throws IOException if the stream cannot be read
+     */
+    public int run(EdgeSource edges, int improvementPasses) throws IOException {
+        edges.forEachEdge(this::accept);
+        for (int i = 0; i < improvementPasses; i++) {
+            if (improve(edges) == 0) {
+                break;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Makes one improvement pass over the stream, flipping every augmenting path of length three it finds.
+     * @param edges the stream, which must yield the same edges as the first pass
+     * @return the number of pairs gained
+     * @throws IOException if the stream cannot be read
+     */
+    public int improve(EdgeSource edges) throws IOException {
+        int before = size;
+        wing = new IntIntHashMap(size, 0);
+        secondWing = new IntIntHashMap(size / 4, 0);
+        changed = false;
+        try {
+            edges.forEachEdge(this::accept);
+            certified = !changed;
+            improvementPasses++;
+        } finally {
+            peakBytes = Math.max(peakBytes, getMemoryBytes());
+            wing = null;
+            secondWing = null;
+        }
+        return size - before;
+    }
+
+    // Records the free vertex a as a wing of the matched vertex u, and flips the path through u's pair if it is complete
+    private void addWing(int u, int a) {
+        if (!hasFreeWing(wing, u)) {
+            wing.put(u, a);
+        } else if (wing.get(u) == a || hasFreeWing(secondWing, u)) {
+            return;
+        } else {
+            secondWing.put(u, a);
+        }
+        int v = mate.get(u);
+        int b;
+        if (hasFreeWing(wing, v) && wing.get(v) != a) {
+            b = wing.get(v);
+        } else if (hasFreeWing(secondWing, v) && secondWing.get(v) != a) {
+            b = secondWing.get(v);
+        } else {
+            return;
+        }
+        // a - u = v - b becomes a = u - v = b
+        wing.remove(u);
+        secondWing.remove(u);
+        wing.remove(v);
+        secondWing.remove(v);
+        match(a, u);
+        match(v, b);
+        size++;
+        augmentations++;
+        changed = true;
+    }
+
+    // Whether the matched vertex v has a wing in the given map that is still free
+    private boolean hasFreeWing(IntIntHashMap wings, int v) {
+        return wings.containsKey(v) && isFree(wings.get(v));
+    }
+
+    private boolean isFree(int v) {
+        return !mate.containsKey(v);
+    }
+
+    private void match(int u, int v) {
+        mate.put(u, v);
+        mate.put(v, u);
+    }
+
+    // Number of matched pairs
+    public int size() {
+        return size;
+    }
+
+    public boolean isMatched(int id) {
+        return mate.containsKey(id);
+    }
+
+    /**
+     * Returns the mate of a matched vertex.
+     * @param id the vertex id
+     * @return the id of its mate
+     * @throws IllegalArgumentException if the vertex is not matched
+     */
+    public int mateOf(int id) {
+        if (!mate.containsKey(id)) {
+            throw new IllegalArgumentException("Vertex " + id + " is not matched.");
+        }
+        return mate.get(id);
+    }
+
+    /**
+     * No matching of the streamed graph has more pairs than this: twice the size of the maximal matching,
+     * or one and a half times it once an improvement pass has found no augmenting path of length three.
+     * Only holds if every pass saw the same edges.
+     * @return the upper bound on the size of a maximum matching
+     */
+    public long getUpperBound() {
+        return certified ? size + size / 2 : 2L * size;
+    }
+
+    /**
+     * Builds the matching as a map, for example for {@link EdmondsBlossomAlgorithm#setInitialMatching(Map)}.
+     * @return the matching with each pair stored in both directions
+     */
+    public Map<Integer, Integer> getMatching() {
+        Map<Integer, Integer> matching = new HashMap<>(4 * size);
+        for (int id : mate.keys()) {
+            matching.put(id, mate.get(id));
+        }
+        return matching;
+    }
+
+    // Number of passes made over the stream, the first one included once it has read an edge
+    public int getPasses() {
+        return improvementPasses + (edgesRead > 0 ? 1 : 0);
+    }
+
+    // Number of edges read over all passes
+    public long getEdgesRead() {
+        return edgesRead;
+    }
+
+    // Number of augmenting paths of length three flipped by the improvement passes
+    public long getAugmentations() {
+        return augmentations;
+    }
+
+    // Bytes held by the maps of the matcher right now
+    private long getMemoryBytes() {
+        long bytes = mate.memoryBytes();
+        if (wing != null) {
+            bytes += wing.memoryBytes() + secondWing.memoryBytes();
+        }
+        return bytes;
+    }
+
+    // Most bytes the maps of the matcher have held at once; the maps never shrink, so this is exact
+    public long getPeakMemoryBytes() {
+        return Math.max(peakBytes, getMemoryBytes());
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingMatching{size=" + size + ", upperBound=" + getUpperBound() + ", passes=" + getPasses()
+                + ", edgesRead=" + edgesRead + ", augmentations=" + augmentations + ", peakMemoryBytes=" + getPeakMemoryBytes() + '}';
+    }
+}
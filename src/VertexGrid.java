@@ -0,0 +1,156 @@
+import java.awt.Rectangle;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid over vertex positions. Every vertex is kept in the square cell that contains it,
+ * so finding the vertex under a point or the vertices inside a rectangle only looks at the cells
+ * that overlap it instead of scanning the whole graph.
+ */
+class VertexGrid {
+    static final int CELL_SIZE = 64;
+    private static final int NONE = -1;
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Integer, Cell> cellOf = new HashMap<>();
+
+    // Builds the grid of every vertex of the graph
+    VertexGrid(Graph graph) {
+        for (Integer id : graph.getVertices()) {
+            Vertex vertex = graph.getVertex(id);
+            add(id, vertex.getX(), vertex.getY());
+        }
+    }
+
+    int size() {
+        return cellOf.size();
+    }
+
+    // Adds a vertex, or moves it if it is already in the grid
+    void add(int id, int x, int y) {
+        remove(id);
+        long key = key(cell(x), cell(y));
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell(key);
+            cells.put(key, cell);
+        }
+        cell.add(id, x, y);
+        cellOf.put(id, cell);
+    }
+
+    void remove(int id) {
+        Cell cell = cellOf.remove(id);
+        if (cell != null && cell.remove(id) == 0) {
+            cells.remove(cell.key);
+        }
+    }
+
+    /**
+     * Finds the vertex closest to a point.
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param radius the largest distance, exclusive
+     * @return the id of the closest vertex nearer than radius, or -1 if there is none
+     */
+    int nearest(int x, int y, int radius) {
+        int best = NONE;
+        long bestDistance = (long) radius * radius;
+        for (int cx = cell((long) x - radius), cxEnd = cell((long) x + radius); cx <= cxEnd; cx++) {
+            for (int cy = cell((long) y - radius), cyEnd = cell((long) y + radius); cy <= cyEnd; cy++) {
+                Cell cell = cells.get(key(cx, cy));
+                if (cell == null) continue;
+                for (int i = 0; i < cell.size; i++) {
+                    long dx = cell.xs[i] - x;
+                    long dy = cell.ys[i] - y;
+                    long distance = dx * dx + dy * dy;
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        best = cell.ids[i];
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Calls action with the id of every vertex inside a rectangle.
+     * When the rectangle covers more cells than are occupied, the occupied cells are walked instead.
+     * @param area the rectangle, borders included
+     * @param action receives the vertex ids, in no particular order
+     */
+    void forEachIn(Rectangle area, IntConsumer action) {
+        // In long arithmetic, like GraphView.contains, so an area reaching past Integer.MAX_VALUE does not wrap
+        int cx0 = cell(area.x), cx1 = cell((long) area.x + area.width);
+        int cy0 = cell(area.y), cy1 = cell((long) area.y + area.height);
+        if ((long) (cx1 - cx0 + 1) * (cy1 - cy0 + 1) > cells.size()) {
+            for (Cell cell : cells.values()) {
+                cell.forEachIn(area, action);
+            }
+            return;
+        }
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                Cell cell = cells.get(key(cx, cy));
+                if (cell != null) {
+                    cell.forEachIn(area, action);
+                }
+            }
+        }
+    }
+
+    private static int cell(long coordinate) {
+        return (int) Math.floorDiv(coordinate, CELL_SIZE);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    // Vertices of one cell in parallel arrays; order is not kept on removal
+    private static final class Cell {
+        final long key;
+        int[] ids = new int[4], xs = new int[4], ys = new int[4];
+        int size;
+
+        Cell(long key) {
+            this.key = key;
+        }
+
+        void add(int id, int x, int y) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, 2 * size);
+                xs = Arrays.copyOf(xs, 2 * size);
+                ys = Arrays.copyOf(ys, 2 * size);
+            }
+            ids[size] = id;
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        // Returns the number of vertices left
+        int remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    xs[i] = xs[size];
+                    ys[i] = ys[size];
+                    break;
+                }
+            }
+            return size;
+        }
+
+        void forEachIn(Rectangle area, IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                if (xs[i] >= area.x && (long) xs[i] <= (long) area.x + area.width
+                        && ys[i] >= area.y && (long) ys[i] <= (long) area.y + area.height) {
+                    action.accept(ids[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.*;
+
+/**
+ * Heuristics that build a maximal matching before the augmenting path search starts,
+ * so the exact engines only have to repair the remainder instead of finding every pair one search at a time.
+ */
+public enum WarmStart {
+    // Start from the empty matching
+    NONE {
+        @Override
+        public int[] initialMatching(CompactGraph graph) {
+            int[] mate = new int[graph.getNumVertices()];
+            Arrays.fill(mate, -1);
+            return mate;
+        }
+    },
+    // Match every vertex, in index order, to its first free neighbor
+    GREEDY {
+        @Override
+        public int[] initialMatching(CompactGraph graph) {
+            int[] mate = NONE.initialMatching(graph);
+            for (int v = 0; v < mate.length; v++) {
+                if (mate[v] != -1) continue;
+                for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                    int u = graph.target(e);
+                    if (mate[u] == -1 && u != v) {
+                        mate[v] = u;
+                        mate[u] = v;
+                        break;
+                    }
+                }
+            }
+            return mate;
+        }
+    },
+    // Karp-Sipser: always match a degree-1 vertex when there is one, otherwise a random edge
+    KARP_SIPSER {
+        @Override
+        public int[] initialMatching(CompactGraph graph) {
+            return new KarpSipser(graph).run();
+        }
+    };
+
+    /**
+     * Builds a maximal matching of the snapshot.
+     * @param graph the graph to match
+     * @return the mate of every dense index, or -1 for unmatched vertices
+     */
+    public abstract int[] initialMatching(CompactGraph graph);
+
+    // Seed of the random edge choices, fixed so that runs are reproducible
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final class KarpSipser {
+        private final CompactGraph graph;
+        private final int[] mate;
+        private final int[] degree;  // number of free neighbors of each free vertex
+        private final int[] pending; // stack of vertices whose degree dropped to one
+        private int top;
+
+        KarpSipser(CompactGraph graph) {
+            this.graph = graph;
+            int n = graph.getNumVertices();
+            this.mate = NONE.initialMatching(graph);
+            this.degree = new int[n];
+            this.pending = new int[n + 2 * graph.getNumEdges()];
+            for (int v = 0; v < n; v++) {
+                degree[v] = graph.degree(v);
+                if (degree[v] == 1) {
+                    pending[top++] = v;
+                }
+            }
+        }
+
+        int[] run() {
+            int n = mate.length;
+            int[] order = new int[n];
+            for (int v = 0; v < n; v++) {
+                order[v] = v;
+            }
+            SplittableRandom random = new SplittableRandom(SEED);
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            for (int i = 0; i < n; i++) {
+                matchPendantVertices();
+                int v = order[i];
+                if (mate[v] == -1 && degree[v] > 0) {
+                    match(v, randomFreeNeighbor(v, random));
+                }
+            }
+            return mate;
+        }
+
+        private void matchPendantVertices() {
+            while (top > 0) {
+                int v = pending[--top];
+                if (mate[v] == -1 && degree[v] == 1) {
+                    match(v, randomFreeNeighbor(v, null));
+                }
+            }
+        }
+
+        // Picks a free neighbor uniformly at random, or the first one when random is null
+        private int randomFreeNeighbor(int v, SplittableRandom random) {
+            int chosen = -1;
+            int seen = 0;
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                int u = graph.target(e);
+                if (mate[u] != -1 || u == v) continue;
+                if (random == null) return u;
+                seen++;
+                if (random.nextInt(seen) == 0) {
+                    chosen = u;
+                }
+            }
+            return chosen;
+        }
+
+        private void match(int v, int u) {
+            if (u == -1) return; // only a self-loop was left
+            mate[v] = u;
+            mate[u] = v;
+            release(v);
+            release(u);
+        }
+
+        // Lowers the free degree of the neighbors of a newly matched vertex
+        private void release(int v) {
+            for (int e = graph.firstEdge(v), end = graph.endEdge(v); e < end; e++) {
+                int w = graph.target(e);
+                if (mate[w] == -1 && --degree[w] == 1) {
+                    pending[top++] = w;
+                }
+            }
+        }
+    }
+}